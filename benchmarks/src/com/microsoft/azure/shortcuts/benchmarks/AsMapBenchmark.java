@@ -0,0 +1,140 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.benchmarks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.microsoft.azure.shortcuts.common.implementation.EntityCache;
+import com.microsoft.azure.shortcuts.resources.common.implementation.GroupableResourcesBaseImpl;
+import com.microsoft.azure.shortcuts.resources.implementation.Subscription;
+import com.microsoft.windowsazure.core.ResourceBaseExtended;
+
+// Listing a collection as a map and wrapping its entities, with the native entities already in memory so that only the 
+// overhead of the library is measured
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AsMapBenchmark {
+	@Param({ "1000", "10000", "100000" })
+	public int size;
+	
+	private InMemoryCollection collection;
+	
+	@Setup
+	public void setup() throws Exception {
+		List<ResourceBaseExtended> nativeItems = new ArrayList<>(this.size);
+		for(int i = 0; i < this.size; i++) {
+			ResourceBaseExtended nativeItem = new ResourceBaseExtended();
+			nativeItem.setId(String.format(
+				"/subscriptions/9657ab5d-4a4a-4fd2-ae7a-4cd9fbd030ef/resourceGroups/group%d/providers/Microsoft.Network/virtualNetworks/vnet%d", 
+				i % 100, i));
+			nativeItem.setName("vnet" + i);
+			nativeItem.setLocation("westus");
+			nativeItems.add(nativeItem);
+		}
+		
+		Subscription subscription = Subscription.connect("benchmark", new URI("http://localhost/"), "benchmark");
+		this.collection = new InMemoryCollection(subscription, nativeItems);
+	}
+	
+	// Only the ids, as when a listing is used to find an entity
+	@Benchmark
+	public Map<String, Wrapper> asMapKeys(Blackhole blackhole) throws Exception {
+		Map<String, Wrapper> map = this.collection.asMap();
+		for(String id : map.keySet()) {
+			blackhole.consume(id);
+		}
+		return map;
+	}
+	
+	// All the entities wrapped, as when a listing is printed
+	@Benchmark
+	public Map<String, Wrapper> asMapValues(Blackhole blackhole) throws Exception {
+		Map<String, Wrapper> map = this.collection.asMap();
+		for(Wrapper wrapper : map.values()) {
+			blackhole.consume(wrapper);
+		}
+		return map;
+	}
+	
+	
+	public static class Wrapper {
+		private final ResourceBaseExtended inner;
+		
+		Wrapper(ResourceBaseExtended inner) {
+			this.inner = inner;
+		}
+		
+		public ResourceBaseExtended inner() {
+			return this.inner;
+		}
+	}
+	
+	
+	// A collection listing native entities from memory instead of Azure
+	private static class InMemoryCollection extends GroupableResourcesBaseImpl<Wrapper, ResourceBaseExtended, Wrapper> {
+		private final List<ResourceBaseExtended> nativeItems;
+		
+		InMemoryCollection(Subscription subscription, List<ResourceBaseExtended> nativeItems) {
+			super(subscription, new EntityCache());
+			this.nativeItems = nativeItems;
+		}
+		
+		@Override
+		protected List<ResourceBaseExtended> getNativeEntities(String group) {
+			return this.nativeItems;
+		}
+		
+		@Override
+		protected ResourceBaseExtended getNativeEntity(String group, String name) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		protected void deleteNativeEntity(String group, String name) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		protected Wrapper wrap(ResourceBaseExtended nativeItem) {
+			return new Wrapper(nativeItem);
+		}
+	}
+}
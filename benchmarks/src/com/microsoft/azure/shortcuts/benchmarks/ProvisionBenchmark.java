@@ -0,0 +1,84 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.microsoft.azure.shortcuts.resources.Region;
+import com.microsoft.azure.shortcuts.resources.Size;
+import com.microsoft.azure.shortcuts.resources.VirtualMachine;
+import com.microsoft.azure.shortcuts.resources.implementation.ArmStandIn;
+import com.microsoft.azure.shortcuts.resources.implementation.Subscription;
+
+// Provisioning a virtual machine with all its dependencies end to end, against a local stand-in for Azure answering
+// without latency, so that the time measured is that of the library, the SDK and the HTTP round trips
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProvisionBenchmark {
+	private final AtomicInteger count = new AtomicInteger();
+	private ArmStandIn arm;
+	private Subscription subscription;
+	
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		this.arm = ArmStandIn.start("00000000-0000-0000-0000-000000000000");
+		this.subscription = this.arm.subscription().warmUp();
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.arm.stop();
+	}
+	
+	@Benchmark
+	public VirtualMachine provisionVirtualMachine() throws Exception {
+		final String name = "vm" + this.count.incrementAndGet();
+		return this.subscription.virtualMachines().define(name)
+			.withRegion(Region.US_WEST)
+			.withNewResourceGroup(name + "group")
+			.withNewNetwork(name + "net", "10.0.0.0/28")
+			.withPrivateIpAddressDynamic()
+			.withNewPublicIpAddress()
+			.withAdminUsername("shortcuts")
+			.withAdminPassword("Abcd.1234")
+			.withImage("Canonical", "UbuntuServer", "14.04.3-LTS", "14.04.201602171")
+			.withSize(Size.Type.BASIC_A1)
+			.withNewStorageAccount(name + "store")
+			.provision();
+	}
+}
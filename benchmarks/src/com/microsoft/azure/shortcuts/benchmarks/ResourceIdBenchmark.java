@@ -0,0 +1,73 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.microsoft.azure.shortcuts.resources.common.implementation.ResourceId;
+import com.microsoft.azure.shortcuts.resources.implementation.ResourcesImpl;
+
+// Parsing of resource ids, done for every entity read or listed
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceIdBenchmark {
+	@Param({
+		"/subscriptions/9657ab5d-4a4a-4fd2-ae7a-4cd9fbd030ef/resourceGroups/group1/providers/Microsoft.Network/virtualNetworks/vnet1",
+		"/subscriptions/9657ab5d-4a4a-4fd2-ae7a-4cd9fbd030ef/resourceGroups/group1/providers/Microsoft.Network/networkInterfaces/nic1/ipConfigurations/ipconfig1"
+	})
+	public String id;
+	
+	@Setup
+	public void setup() {
+		// Make sure the id is parsable, so that the benchmarks do not measure failures
+		ResourceId.parse(this.id);
+	}
+	
+	@Benchmark
+	public String groupFromResourceId() {
+		return ResourcesImpl.groupFromResourceId(this.id);
+	}
+	
+	@Benchmark
+	public String nameFromResourceId() {
+		return ResourcesImpl.nameFromResourceId(this.id);
+	}
+	
+	@Benchmark
+	public ResourceId parse() {
+		return ResourceId.parse(this.id);
+	}
+}
@@ -0,0 +1,98 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.services.implementation;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.microsoft.azure.shortcuts.common.implementation.Utils;
+
+// Editing the classic network configuration, whose size grows with the number of virtual networks of the subscription, 
+// with the DOM based helpers of Utils and with the streaming editor the classic networks use. In this package to reach the editor
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkConfigBenchmark {
+	private static final String NAMESPACE = "http://schemas.microsoft.com/ServiceHosting/2011/07/NetworkConfiguration";
+	private static final String SITES_XPATH = "/*[local-name()='NetworkConfiguration']/*[local-name()='VirtualNetworkConfiguration']/*[local-name()='VirtualNetworkSites']";
+	
+	@Param({ "10", "100", "500" })
+	public int sites;
+	
+	private String networkConfig;
+	private String newSite;
+	private String removedSiteXPath;
+	private String removedSiteName;
+	
+	@Setup
+	public void setup() {
+		StringBuilder xml = new StringBuilder()
+			.append("<NetworkConfiguration xmlns=\"").append(NAMESPACE).append("\">")
+			.append("<VirtualNetworkConfiguration><Dns/><VirtualNetworkSites>");
+		for(int i = 0; i < this.sites; i++) {
+			xml.append(site("net" + i, i));
+		}
+		this.networkConfig = xml.append("</VirtualNetworkSites></VirtualNetworkConfiguration></NetworkConfiguration>").toString();
+		this.newSite = site("newnet", this.sites);
+		this.removedSiteName = "net" + (this.sites / 2);
+		this.removedSiteXPath = SITES_XPATH + "/*[local-name()='VirtualNetworkSite'][@name='" + this.removedSiteName + "']";
+	}
+	
+	private static String site(String name, int index) {
+		return String.format("<VirtualNetworkSite xmlns=\"%s\" name=\"%s\" Location=\"West US\">"
+			+ "<AddressSpace><AddressPrefix>10.%d.%d.0/24</AddressPrefix></AddressSpace>"
+			+ "<Subnets><Subnet name=\"Subnet-1\"><AddressPrefix>10.%d.%d.0/28</AddressPrefix></Subnet></Subnets>"
+			+ "</VirtualNetworkSite>", NAMESPACE, name, index / 256, index % 256, index / 256, index % 256);
+	}
+	
+	@Benchmark
+	public String insertXMLElement() {
+		return Utils.insertXMLElement(this.networkConfig, this.newSite, SITES_XPATH);
+	}
+	
+	@Benchmark
+	public String deleteXMLElement() {
+		return Utils.deleteXMLElement(this.networkConfig, this.removedSiteXPath);
+	}
+	
+	@Benchmark
+	public String editorAdd() throws Exception {
+		return new NetworkConfigEditor().add("newnet", this.newSite).apply(this.networkConfig);
+	}
+	
+	@Benchmark
+	public String editorRemove() throws Exception {
+		return new NetworkConfigEditor().remove(this.removedSiteName).apply(this.networkConfig);
+	}
+}
@@ -0,0 +1,57 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.dropwizard;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.MetricRegistry;
+import com.microsoft.azure.shortcuts.common.Metrics;
+
+// Records the measurements of the calls to Azure into a Dropwizard metric registry, as: 
+// - <prefix>.calls.<resource type>.<collection>.<verb>, a timer of the calls
+// - <prefix>.inflight.<resource type>.<collection>.<verb>, a counter of the calls in progress
+// - <prefix>.failures.<resource type>.<collection>.<verb>.<status>, a counter of the failed calls by HTTP status (0 if none)
+public class DropwizardMetrics implements Metrics {
+	private final MetricRegistry registry;
+	private final String prefix;
+	
+	public DropwizardMetrics(MetricRegistry registry) {
+		this(registry, "azure");
+	}
+	
+	public DropwizardMetrics(MetricRegistry registry, String prefix) {
+		this.registry = registry;
+		this.prefix = prefix;
+	}
+	
+	@Override
+	public void callStarted(String collection, String verb, String resourceType) {
+		this.registry.counter(MetricRegistry.name(this.prefix, "inflight", resourceType, collection, verb)).inc();
+	}
+	
+	@Override
+	public void callCompleted(String collection, String verb, String resourceType, long durationNanos, int status, Throwable failure) {
+		this.registry.counter(MetricRegistry.name(this.prefix, "inflight", resourceType, collection, verb)).dec();
+		this.registry.timer(MetricRegistry.name(this.prefix, "calls", resourceType, collection, verb)).update(durationNanos, TimeUnit.NANOSECONDS);
+		if(failure != null) {
+			this.registry.counter(MetricRegistry.name(this.prefix, "failures", resourceType, collection, verb, String.valueOf(status))).inc();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.jfr;
+
+import jdk.jfr.EventType;
+
+import com.microsoft.azure.shortcuts.common.ActivityListener;
+
+// Records the activity of the library as Flight Recorder events. Found by the library as a service, and only creating events
+// while they are enabled in a running recording, so that it costs next to nothing otherwise
+public class FlightRecorderListener implements ActivityListener {
+	private static final EventType CALLS = EventType.getEventType(ManagementCallEvent.class);
+	private static final EventType BACKOFFS = EventType.getEventType(BackoffEvent.class);
+	private static final EventType POLLS = EventType.getEventType(PollEvent.class);
+	private static final EventType CACHE_READS = EventType.getEventType(CacheReadEvent.class);
+	
+	@Override
+	public Object callStarted(String operation, String resourceId) {
+		if(!CALLS.isEnabled()) {
+			return null;
+		}
+		
+		ManagementCallEvent event = new ManagementCallEvent();
+		event.operation = operation;
+		event.resourceId = resourceId;
+		event.begin();
+		return event;
+	}
+	
+	@Override
+	public void callEnded(Object call, int status, Throwable failure) {
+		if(call == null) {
+			return;
+		}
+		
+		ManagementCallEvent event = (ManagementCallEvent) call;
+		event.end();
+		if(event.shouldCommit()) {
+			event.status = status;
+			event.failure = (failure != null) ? failure.getClass().getName() : null;
+			event.commit();
+		}
+	}
+	
+	@Override
+	public Object backoffStarted(String operation, int attempt, long delayMillis) {
+		if(!BACKOFFS.isEnabled()) {
+			return null;
+		}
+		
+		BackoffEvent event = new BackoffEvent();
+		event.operation = operation;
+		event.attempt = attempt;
+		event.delay = delayMillis;
+		event.begin();
+		return event;
+	}
+	
+	@Override
+	public void backoffEnded(Object backoff) {
+		if(backoff != null) {
+			((BackoffEvent) backoff).commit();
+		}
+	}
+	
+	@Override
+	public Object pollStarted(int entities) {
+		if(!POLLS.isEnabled()) {
+			return null;
+		}
+		
+		PollEvent event = new PollEvent();
+		event.entities = entities;
+		event.begin();
+		return event;
+	}
+	
+	@Override
+	public void pollEnded(Object poll, int met) {
+		if(poll == null) {
+			return;
+		}
+		
+		PollEvent event = (PollEvent) poll;
+		event.end();
+		if(event.shouldCommit()) {
+			event.met = met;
+			event.commit();
+		}
+	}
+	
+	@Override
+	public void cacheRead(String key, boolean hit) {
+		if(!CACHE_READS.isEnabled()) {
+			return;
+		}
+		
+		CacheReadEvent event = new CacheReadEvent();
+		if(event.shouldCommit()) {
+			event.key = key;
+			event.hit = hit;
+			event.commit();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// A call to Azure, including its HTTP round trip and the pacing of the rate limiter, one event per attempt
+@Name("com.microsoft.azure.shortcuts.ManagementCall")
+@Label("Azure Management Call")
+@Category({ "Azure", "Shortcuts" })
+@Description("A call to the Azure management API made by the library")
+@StackTrace(true)
+class ManagementCallEvent extends Event {
+	@Label("Operation")
+	@Description("The SDK collection and method called, such as VirtualMachine.createOrUpdate")
+	String operation;
+	
+	@Label("Resource Id")
+	@Description("The names the call was made with, such as the resource group and resource names")
+	String resourceId;
+	
+	@Label("Status")
+	@Description("The HTTP status Azure responded with, or 0 if unknown")
+	int status;
+	
+	@Label("Failure")
+	@Description("The class of the exception the call failed with, if any")
+	String failure;
+}
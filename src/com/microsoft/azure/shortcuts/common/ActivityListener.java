@@ -0,0 +1,47 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common;
+
+// Receives the activity of the library as it happens, on the threads doing it, so that profilers such as JDK Flight Recorder 
+// can correlate it with the rest of the process. Listeners are found with java.util.ServiceLoader when the library is first used,
+// so plugging one in only takes adding it to the class path, and without any the library does not report its activity at all.
+// What a listener returns when an activity starts is handed back to it when the activity ends, on the same thread
+public interface ActivityListener {
+	// A call to Azure, named after its SDK collection and method (such as VirtualMachine.createOrUpdate), is starting.
+	// The resource id is the names the call is made with, or null if none
+	Object callStarted(String operation, String resourceId);
+	
+	// The call ended with the HTTP status Azure responded with (or 0 if unknown), and the failure if it failed
+	void callEnded(Object call, int status, Throwable failure);
+	
+	// The calling thread is about to wait before attempting a failed call again
+	Object backoffStarted(String operation, int attempt, long delayMillis);
+	
+	void backoffEnded(Object backoff);
+	
+	// The poller is refreshing entities waited on, to check them against their conditions
+	Object pollStarted(int entities);
+	
+	// The poll ended, with the number of entities now meeting their conditions
+	void pollEnded(Object poll, int met);
+	
+	// An entity or listing was read from the entity cache of a subscription, found or not
+	void cacheRead(String key, boolean hit);
+}
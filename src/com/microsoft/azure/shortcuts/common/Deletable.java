@@ -19,6 +19,11 @@
 */
 package com.microsoft.azure.shortcuts.common;
 
+import java.util.concurrent.Future;
+
 public interface Deletable {
 	void delete() throws Exception;
+	
+	// Deletes on the configured executor, without blocking the calling thread
+	Future<Void> deleteAsync();
 }
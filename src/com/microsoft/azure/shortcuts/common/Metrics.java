@@ -0,0 +1,46 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common;
+
+// Receives the measurements of the calls made to Azure through a subscription or a classic Azure client, to feed counters, 
+// latency histograms and in-flight gauges. The calls are tagged by the SDK collection they are made on (such as VirtualMachine), 
+// their verb (the SDK method, such as createOrUpdate) and the type of resource they target (such as Microsoft.Compute, or 
+// Microsoft.Network/virtualNetworks for the calls on generic resources). Each attempt of a retried call is measured separately.
+// Implementations are called concurrently from the calling threads, so they must be thread safe and quick
+public interface Metrics {
+	// Discards the measurements, without even taking them
+	Metrics NONE = new Metrics() {
+		@Override
+		public void callStarted(String collection, String verb, String resourceType) {
+		}
+		
+		@Override
+		public void callCompleted(String collection, String verb, String resourceType, long durationNanos, int status, Throwable failure) {
+		}
+	};
+	
+	
+	// Called as a call is sent to Azure
+	void callStarted(String collection, String verb, String resourceType);
+	
+	// Called once the call completed, with its duration, the HTTP status Azure responded with (or 0 if unknown, such as when 
+	// Azure could not be reached) and the failure if the call failed
+	void callCompleted(String collection, String verb, String resourceType, long durationNanos, int status, Throwable failure);
+}
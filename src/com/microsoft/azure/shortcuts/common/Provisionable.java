@@ -19,7 +19,12 @@
 */
 package com.microsoft.azure.shortcuts.common;
 
+import java.util.concurrent.Future;
+
 // Encapsulates the provisioning method 
 public interface Provisionable<T> {
 	T provision() throws Exception;
+	
+	// Provisions on the configured executor, without blocking the calling thread
+	Future<T> provisionAsync();
 }
\ No newline at end of file
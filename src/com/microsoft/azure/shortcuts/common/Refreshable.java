@@ -19,7 +19,19 @@
 */
 package com.microsoft.azure.shortcuts.common;
 
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 // Reprepresents refreshable objecta
 public interface Refreshable<T> {
 	T refresh() throws Exception;
+	
+	// Refreshes on the configured executor, without blocking the calling thread
+	Future<T> refreshAsync();
+	
+	// Refreshes until the predicate is met, less and less often, throwing a TimeoutException if it is still not met after the timeout
+	T waitUntil(Predicate<? super T> predicate, long timeout, TimeUnit unit) throws Exception;
+	
+	// Waits until the predicate is met without blocking the calling thread, the entity being refreshed by a shared poller
+	Future<T> waitUntilAsync(Predicate<? super T> predicate, long timeout, TimeUnit unit);
 }
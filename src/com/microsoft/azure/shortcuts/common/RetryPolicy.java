@@ -0,0 +1,113 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// How the calls to Azure are retried when they fail transiently, and when to stop calling an endpoint that keeps failing.
+// Reads are retried on any transient failure. Idempotent writes (PUT and DELETE) are retried the same way unless write retries 
+// are turned off, while other calls are only retried when Azure did certainly not process them (throttling, connection refused)
+public class RetryPolicy {
+	private volatile int maxAttempts = 4;
+	private volatile long initialDelay = 500;
+	private volatile long maxDelay = TimeUnit.SECONDS.toMillis(30);
+	private volatile boolean retryingWrites = true;
+	private volatile int breakerThreshold = 10;
+	private volatile long breakerCooldown = TimeUnit.SECONDS.toMillis(30);
+	
+	
+	// Sets how many times a call is attempted in total, 1 disabling retries
+	public RetryPolicy withMaxAttempts(int maxAttempts) {
+		this.maxAttempts = Math.max(maxAttempts, 1);
+		return this;
+	}
+	
+	
+	// Sets the delay before the first retry, doubled for each following one up to the maximum, and randomized so that 
+	// concurrent callers do not retry in lockstep
+	public RetryPolicy withBackoff(long initialDelay, long maxDelay, TimeUnit unit) {
+		this.initialDelay = unit.toMillis(initialDelay);
+		this.maxDelay = unit.toMillis(maxDelay);
+		return this;
+	}
+	
+	
+	// Sets whether idempotent writes are retried like reads
+	public RetryPolicy withWriteRetries(boolean retryingWrites) {
+		this.retryingWrites = retryingWrites;
+		return this;
+	}
+	
+	
+	// Sets after how many consecutive transient failures an endpoint is no longer called, and for how long.
+	// A threshold of 0 disables the circuit breaker
+	public RetryPolicy withCircuitBreaker(int threshold, long cooldown, TimeUnit unit) {
+		this.breakerThreshold = Math.max(threshold, 0);
+		this.breakerCooldown = unit.toMillis(cooldown);
+		return this;
+	}
+	
+	
+	/**
+	 * @return The number of times a call is attempted in total
+	 */
+	public int maxAttempts() {
+		return this.maxAttempts;
+	}
+	
+	
+	/**
+	 * @return Whether idempotent writes are retried like reads
+	 */
+	public boolean isRetryingWrites() {
+		return this.retryingWrites;
+	}
+	
+	
+	/**
+	 * @return The number of consecutive transient failures after which an endpoint is no longer called, or 0 if never
+	 */
+	public int breakerThreshold() {
+		return this.breakerThreshold;
+	}
+	
+	
+	/**
+	 * @return The number of milliseconds an endpoint is no longer called for once its circuit breaker opens
+	 */
+	public long breakerCooldown() {
+		return this.breakerCooldown;
+	}
+	
+	
+	/**
+	 * @param attempt The number of the attempt that just failed, starting from 1
+	 * @return The number of milliseconds to wait before the next attempt, between half and all of the exponential backoff
+	 */
+	public long delay(int attempt) {
+		long backoff = this.initialDelay << Math.min(attempt - 1, 30);
+		if(backoff <= 0 || backoff > this.maxDelay) {
+			backoff = this.maxDelay;
+		}
+		
+		return (backoff <= 1) ? backoff : backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+	}
+}
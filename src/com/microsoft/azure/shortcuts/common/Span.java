@@ -0,0 +1,73 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A timed step of a traced operation, such as the provisioning of a virtual machine, one of the dependencies it ensures, 
+// or one of the calls to Azure they make. Spans form a tree under the span of the whole operation
+public interface Span {
+	/**
+	 * @return The name of the step, such as ensureNetwork, or VirtualMachine.createOrUpdate for a call to Azure
+	 */
+	String name();
+	
+	/**
+	 * @return The id of the resource the step ensured, or the names the call to Azure was made with, or null if unknown
+	 */
+	String resourceId();
+	
+	/**
+	 * @return The HTTP status of the call to Azure, or 0 if unknown or if the step is not a call
+	 */
+	int status();
+	
+	/**
+	 * @return The failure of the step, or null if it succeeded or has not ended
+	 */
+	Throwable failure();
+	
+	/**
+	 * @return The time the step started at, relative to the start of the whole operation
+	 */
+	long start(TimeUnit unit);
+	
+	/**
+	 * @return The duration of the step, or how long it has been running if it has not ended
+	 */
+	long duration(TimeUnit unit);
+	
+	/**
+	 * @return The span of the step this one is part of, or null for the whole operation
+	 */
+	Span parent();
+	
+	/**
+	 * @return The spans of the steps this one is made of, in the order they started
+	 */
+	List<Span> children();
+	
+	/**
+	 * @return A text report of this span and of those under it, one line per span with its timing and a bar showing when it ran. 
+	 * The spans on the critical path, the chain of steps each waiting for the previous one to end, are marked with a star
+	 */
+	String waterfall();
+}
@@ -19,7 +19,12 @@
 */
 package com.microsoft.azure.shortcuts.common;
 
+import java.util.concurrent.Future;
+
 // Requires class to support reading entities
 public interface SupportsGetting<T> {
 	T get(String name) throws Exception;
+	
+	// Reads the entity on the configured executor, without blocking the calling thread
+	Future<T> getAsync(String name);
 }
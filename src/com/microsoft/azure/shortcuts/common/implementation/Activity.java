@@ -0,0 +1,47 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import com.microsoft.azure.shortcuts.common.ActivityListener;
+
+// Holds the activity listener found on the class path, if any. The listener is final so that, without one, checking for it
+// before reporting costs next to nothing
+public final class Activity {
+	public static final ActivityListener LISTENER = load();
+	
+	private Activity() {
+	}
+	
+	
+	// Returns the first listener registered as a service, or null if none is or it cannot be loaded
+	private static ActivityListener load() {
+		try {
+			Iterator<ActivityListener> listeners = ServiceLoader.load(ActivityListener.class, Activity.class.getClassLoader()).iterator();
+			return listeners.hasNext() ? listeners.next() : null;
+		} catch(ServiceConfigurationError | LinkageError e) {
+			// Such as when the listener requires a newer JVM, which should not prevent using the library
+			return null;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.microsoft.azure.shortcuts.common.Deletable;
+import com.microsoft.azure.shortcuts.common.Provisionable;
+import com.microsoft.azure.shortcuts.common.Refreshable;
+import com.microsoft.azure.shortcuts.common.SupportsGetting;
+
+// Runs the blocking verbs on an executor, exposing their outcome as futures
+public final class Async {
+	private Async() {
+	}
+	
+	
+	// Runs the task on the executor
+	public static <T> Future<T> submit(Executor executor, Callable<T> task) {
+		FutureTask<T> future = new FutureTask<>(task);
+		executor.execute(future);
+		return future;
+	}
+	
+	
+	// Runs the tasks concurrently and waits for all of them, then throws the first failure if any. The calling thread runs the first 
+	// task and then any other not started yet, rather than just waiting, so that the tasks complete even when every thread of 
+	// a bounded executor is itself waiting on such tasks
+	public static void runAll(Executor executor, List<Callable<Void>> tasks) throws Exception {
+		final ArrayList<FutureTask<Void>> futures = new ArrayList<>();
+		for(Callable<Void> task : tasks) {
+			FutureTask<Void> future = new FutureTask<>(task);
+			if(!futures.isEmpty()) {
+				try {
+					executor.execute(future);
+				} catch(RejectedExecutionException e) {
+					// The calling thread will run it
+				}
+			}
+			futures.add(future);
+		}
+		
+		// Running a task already started or completed by the executor does nothing
+		for(FutureTask<Void> future : futures) {
+			future.run();
+		}
+		
+		Exception failure = null;
+		for(FutureTask<Void> future : futures) {
+			try {
+				future.get();
+			} catch(ExecutionException e) {
+				if(failure == null) {
+					failure = (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+				}
+			}
+		}
+		
+		if(failure != null) {
+			throw failure;
+		}
+	}
+	
+	
+	public static <T> Future<T> provision(Executor executor, final Provisionable<T> provisionable) {
+		return submit(executor, new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				return provisionable.provision();
+			}
+		});
+	}
+	
+	
+	public static <T> Future<T> refresh(Executor executor, final Refreshable<T> refreshable) {
+		return submit(executor, new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				return refreshable.refresh();
+			}
+		});
+	}
+	
+	
+	public static Future<Void> delete(Executor executor, final Deletable deletable) {
+		return submit(executor, new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				deletable.delete();
+				return null;
+			}
+		});
+	}
+	
+	
+	public static <T> Future<T> get(Executor executor, final SupportsGetting<T> collection, final String name) {
+		return submit(executor, new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				return collection.get(name);
+			}
+		});
+	}
+}
@@ -0,0 +1,88 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+// Runs at most a given number of tasks at a time on an underlying executor, queuing the others until a running one completes
+public class BoundedExecutor implements Executor {
+	private final Executor executor;
+	private final int maxConcurrency;
+	private final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+	private int running = 0;
+	
+	public BoundedExecutor(Executor executor, int maxConcurrency) {
+		if(maxConcurrency < 1) {
+			throw new IllegalArgumentException("The maximum concurrency must be at least 1");
+		}
+		this.executor = executor;
+		this.maxConcurrency = maxConcurrency;
+	}
+	
+	
+	@Override
+	public void execute(Runnable task) {
+		synchronized(this) {
+			if(this.running >= this.maxConcurrency) {
+				this.pending.add(task);
+				return;
+			}
+			this.running++;
+		}
+		
+		dispatch(task);
+	}
+	
+	
+	// Hands the task over to the underlying executor, starting the next pending task once it completes
+	private void dispatch(final Runnable task) {
+		try {
+			this.executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						task.run();
+					} finally {
+						next();
+					}
+				}
+			});
+		} catch(RuntimeException e) {
+			next();
+			throw e;
+		}
+	}
+	
+	
+	// Starts the next pending task, if any, in place of the one that just completed
+	private void next() {
+		Runnable task;
+		synchronized(this) {
+			task = this.pending.poll();
+			if(task == null) {
+				this.running--;
+				return;
+			}
+		}
+		
+		dispatch(task);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,116 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Deep copies of the native entities of the SDK, which are plain beans of nested beans, lists and maps. Copies of the collections
+// are of the same classes, so that the lazy collections of the SDK keep telling which properties were set
+public final class DeepCopy {
+	private DeepCopy() {
+	}
+	
+	@SuppressWarnings("unchecked")
+	public static <T> T of(T value) {
+		try {
+			return (T) copy(value, new IdentityHashMap<Object, Object>());
+		} catch(ReflectiveOperationException e) {
+			throw new IllegalStateException("Failed to copy an instance of " + value.getClass().getName(), e);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static Object copy(Object value, Map<Object, Object> copies) throws ReflectiveOperationException {
+		if(value == null || isImmutable(value)) {
+			return value;
+		} else if(copies.containsKey(value)) {
+			return copies.get(value);
+		} else if(value instanceof Date) {
+			return ((Date) value).clone();
+		} else if(value instanceof Calendar) {
+			return ((Calendar) value).clone();
+		}
+		
+		final Class<?> type = value.getClass();
+		if(type.isArray()) {
+			final int length = Array.getLength(value);
+			Object copy = Array.newInstance(type.getComponentType(), length);
+			copies.put(value, copy);
+			for(int i = 0; i < length; i++) {
+				Array.set(copy, i, copy(Array.get(value, i), copies));
+			}
+			return copy;
+		}
+		
+		Constructor<?> constructor = type.getDeclaredConstructor();
+		if(!Modifier.isPublic(constructor.getModifiers()) || !Modifier.isPublic(type.getModifiers())) {
+			constructor.setAccessible(true);
+		}
+		Object copy = constructor.newInstance();
+		copies.put(value, copy);
+		
+		if(value instanceof Collection) {
+			for(Object element : (Collection<Object>) value) {
+				((Collection<Object>) copy).add(copy(element, copies));
+			}
+		} else if(value instanceof Map) {
+			for(Map.Entry<Object, Object> entry : ((Map<Object, Object>) value).entrySet()) {
+				((Map<Object, Object>) copy).put(copy(entry.getKey(), copies), copy(entry.getValue(), copies));
+			}
+		}
+		
+		// The fields of the JDK classes are left to their constructors and the elements added above
+		for(Class<?> declaringType = type; declaringType != null && !isJdkClass(declaringType); declaringType = declaringType.getSuperclass()) {
+			for(Field field : declaringType.getDeclaredFields()) {
+				if(!Modifier.isStatic(field.getModifiers())) {
+					field.setAccessible(true);
+					field.set(copy, copy(field.get(value), copies));
+				}
+			}
+		}
+		
+		return copy;
+	}
+	
+	private static boolean isImmutable(Object value) {
+		return value instanceof String 
+			|| value instanceof Boolean 
+			|| value instanceof Character 
+			|| value instanceof Enum 
+			|| value instanceof URI 
+			|| value instanceof UUID 
+			|| value instanceof Class
+			|| (value instanceof Number && isJdkClass(value.getClass()) && !value.getClass().getName().startsWith("java.util."));
+	}
+	
+	private static boolean isJdkClass(Class<?> type) {
+		return type.getName().startsWith("java.") || type.getName().startsWith("javax.");
+	}
+}
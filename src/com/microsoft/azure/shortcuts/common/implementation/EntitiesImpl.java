@@ -19,6 +19,8 @@
 */
 package com.microsoft.azure.shortcuts.common.implementation;
 
+import java.util.concurrent.Executor;
+
 public abstract class EntitiesImpl<T> {
 	final protected T azure;
 	protected EntitiesImpl(T azure) {
@@ -28,4 +30,7 @@ public abstract class EntitiesImpl<T> {
 	public T azure() {
 		return this.azure;
 	}
+	
+	// Returns the executor running the asynchronous verbs of the entities
+	public abstract Executor executor();
 }
@@ -0,0 +1,185 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.microsoft.azure.shortcuts.common.CacheStatistics;
+
+// Thread-safe cache bounded both in size, by evicting the least recently used entries, and in time, by expiring entries
+// a given time after they were cached. It is disabled, caching nothing, until both bounds are set to positive values
+public class EntityCache implements CacheStatistics {
+	private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+			if(this.size() > maxSize) {
+				evictions.incrementAndGet();
+				return true;
+			} else {
+				return false;
+			}
+		}
+	};
+	
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private volatile int maxSize = 0;
+	private volatile long ttl = 0;
+	
+	
+	// Sets the bounds of the cache, dropping the entries beyond the new maximum size, or all of them if caching gets disabled
+	public EntityCache withBounds(int maxSize, long ttl, TimeUnit unit) {
+		synchronized(this.entries) {
+			this.maxSize = Math.max(maxSize, 0);
+			this.ttl = Math.max(unit.toMillis(ttl), 0);
+			if(!this.isEnabled()) {
+				this.entries.clear();
+			} else {
+				Iterator<String> keys = this.entries.keySet().iterator();
+				while(this.entries.size() > this.maxSize && keys.hasNext()) {
+					keys.next();
+					keys.remove();
+					this.evictions.incrementAndGet();
+				}
+			}
+		}
+		return this;
+	}
+	
+	public boolean isEnabled() {
+		return this.maxSize > 0 && this.ttl > 0;
+	}
+	
+	
+	// Returns the cached value, or null if it is not cached or has expired
+	public Object get(String key) {
+		if(!this.isEnabled()) {
+			return null;
+		}
+		
+		// The read is told to the listener only once the lock is released, so that a slow listener does not hold up the other reads
+		final Object value;
+		synchronized(this.entries) {
+			Entry entry = this.entries.get(key);
+			if(entry == null) {
+				value = null;
+			} else if(entry.isExpired()) {
+				this.entries.remove(key);
+				value = null;
+			} else {
+				value = entry.value;
+			}
+			
+			if(value == null) {
+				this.misses.incrementAndGet();
+			} else {
+				this.hits.incrementAndGet();
+			}
+		}
+		
+		reportRead(key, value != null);
+		return value;
+	}
+	
+	private static void reportRead(String key, boolean hit) {
+		if(Activity.LISTENER != null) {
+			Activity.LISTENER.cacheRead(key, hit);
+		}
+	}
+	
+	public void put(String key, Object value) {
+		if(!this.isEnabled() || value == null) {
+			return;
+		}
+		
+		synchronized(this.entries) {
+			this.entries.put(key, new Entry(value, System.currentTimeMillis() + this.ttl));
+		}
+	}
+	
+	public void invalidate(String key) {
+		synchronized(this.entries) {
+			this.entries.remove(key);
+		}
+	}
+	
+	// Drops all the entries whose keys start with the prefix
+	public void invalidateByPrefix(String prefix) {
+		synchronized(this.entries) {
+			Iterator<String> keys = this.entries.keySet().iterator();
+			while(keys.hasNext()) {
+				if(keys.next().startsWith(prefix)) {
+					keys.remove();
+				}
+			}
+		}
+	}
+	
+	public void invalidateAll() {
+		synchronized(this.entries) {
+			this.entries.clear();
+		}
+	}
+	
+	
+	@Override
+	public long hits() {
+		return this.hits.get();
+	}
+
+	@Override
+	public long misses() {
+		return this.misses.get();
+	}
+
+	@Override
+	public long evictions() {
+		return this.evictions.get();
+	}
+
+	@Override
+	public int size() {
+		synchronized(this.entries) {
+			return this.entries.size();
+		}
+	}
+	
+	
+	private static class Entry {
+		private final Object value;
+		private final long expiresAt;
+		
+		private Entry(Object value, long expiresAt) {
+			this.value = value;
+			this.expiresAt = expiresAt;
+		}
+		
+		private boolean isExpired() {
+			return System.currentTimeMillis() >= this.expiresAt;
+		}
+	}
+}
@@ -19,6 +19,12 @@
 */
 package com.microsoft.azure.shortcuts.common.implementation;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.shortcuts.common.Predicate;
 import com.microsoft.azure.shortcuts.common.Refreshable;
 
 public abstract class IndexableRefreshableImpl<T> 
@@ -30,4 +36,36 @@ public abstract class IndexableRefreshableImpl<T>
 	}
 
 	public abstract T refresh() throws Exception;
+	
+	// Returns the executor running the asynchronous verbs, normally that of the collection
+	protected abstract Executor executor();
+	
+	@Override
+	public Future<T> refreshAsync() {
+		return Async.refresh(this.executor(), this);
+	}
+	
+	@Override
+	public T waitUntil(Predicate<? super T> predicate, long timeout, TimeUnit unit) throws Exception {
+		Future<T> wait = this.waitUntilAsync(predicate, timeout, unit);
+		try {
+			return wait.get();
+		} catch(ExecutionException e) {
+			throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+		} catch(InterruptedException e) {
+			wait.cancel(false);
+			throw e;
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public Future<T> waitUntilAsync(Predicate<? super T> predicate, long timeout, TimeUnit unit) {
+		return Poller.waitUntil((T) this, predicate, this.refresher(), timeout, unit, this.executor());
+	}
+	
+	// Returns how the poller refreshes this entity while waiting on it, which collections able to refresh many entities at once override
+	protected Poller.Refresher<T> refresher() {
+		return Poller.individually();
+	}
 }
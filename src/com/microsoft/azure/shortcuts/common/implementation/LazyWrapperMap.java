@@ -0,0 +1,109 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Read-only map over native entities indexed by key, which wraps each entity only when it is first accessed,
+// so that large listings do not allocate wrappers for the entities the caller never looks at
+public abstract class LazyWrapperMap<WRAPPER, INNER> extends AbstractMap<String, WRAPPER> {
+	private final Map<String, INNER> inners;
+	private final ConcurrentHashMap<String, WRAPPER> wrappers = new ConcurrentHashMap<>();
+	
+	protected LazyWrapperMap(Map<String, INNER> inners) {
+		this.inners = inners;
+	}
+	
+	protected abstract WRAPPER wrap(INNER inner);
+	
+	
+	@Override
+	public int size() {
+		return this.inners.size();
+	}
+	
+	@Override
+	public boolean containsKey(Object key) {
+		return this.inners.containsKey(key);
+	}
+	
+	@Override
+	public WRAPPER get(Object key) {
+		INNER inner = this.inners.get(key);
+		return (inner == null) ? null : this.wrapper((String) key, inner);
+	}
+	
+	@Override
+	public Set<String> keySet() {
+		return Collections.unmodifiableSet(this.inners.keySet());
+	}
+	
+	@Override
+	public Set<Map.Entry<String, WRAPPER>> entrySet() {
+		return new AbstractSet<Map.Entry<String, WRAPPER>>() {
+			@Override
+			public int size() {
+				return inners.size();
+			}
+
+			@Override
+			public Iterator<Map.Entry<String, WRAPPER>> iterator() {
+				final Iterator<Map.Entry<String, INNER>> iterator = inners.entrySet().iterator();
+				return new Iterator<Map.Entry<String, WRAPPER>>() {
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Map.Entry<String, WRAPPER> next() {
+						Map.Entry<String, INNER> entry = iterator.next();
+						return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), wrapper(entry.getKey(), entry.getValue()));
+					}
+
+					@Override
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+	
+	
+	// Returns the wrapper of the entity, wrapping it only the first time so that repeated accesses return the same wrapper
+	private WRAPPER wrapper(String key, INNER inner) {
+		WRAPPER wrapper = this.wrappers.get(key);
+		if(wrapper == null) {
+			wrapper = this.wrap(inner);
+			WRAPPER existing = this.wrappers.putIfAbsent(key, wrapper);
+			if(existing != null) {
+				wrapper = existing;
+			}
+		}
+		return wrapper;
+	}
+}
\ No newline at end of file
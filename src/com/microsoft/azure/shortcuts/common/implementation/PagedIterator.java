@@ -0,0 +1,101 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Iterates over entities that Azure lists one page at a time, wrapping each entity as it is reached and fetching the next page
+// only once the current one has been consumed, so that the caller can process and discard the entities as they arrive
+public abstract class PagedIterator<INNER, WRAPPER> implements Iterator<WRAPPER> {
+	private Iterator<INNER> items;
+	private String nextLink;
+	
+	// The first page is fetched by the caller, so that failing to list surfaces as usual rather than on the first call to hasNext()
+	protected PagedIterator(Page<INNER> firstPage) {
+		this.setPage(firstPage);
+	}
+	
+	// For entities that Azure lists all at once, in which case only the wrapping is incremental
+	protected PagedIterator(List<INNER> items) {
+		this(new Page<>(items, null));
+	}
+	
+	protected abstract WRAPPER wrap(INNER item);
+	
+	// Fetches the page the link points to. Listings that Azure returns all at once never get a link, and may return an empty last page
+	protected abstract Page<INNER> nextPage(String nextLink) throws Exception;
+	
+	
+	@Override
+	public boolean hasNext() {
+		while(!this.items.hasNext() && this.nextLink != null) {
+			try {
+				this.setPage(this.nextPage(this.nextLink));
+			} catch (Exception e) {
+				throw new RuntimeException("Failed to fetch the next page of entities", e);
+			}
+		}
+		
+		return this.items.hasNext();
+	}
+	
+	@Override
+	public WRAPPER next() {
+		if(!this.hasNext()) {
+			throw new NoSuchElementException();
+		}
+		
+		return this.wrap(this.items.next());
+	}
+	
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException();
+	}
+	
+	
+	private void setPage(Page<INNER> page) {
+		this.items = (page.items != null) ? page.items.iterator() : Collections.<INNER>emptyIterator();
+		this.nextLink = (page.nextLink == null || page.nextLink.isEmpty()) ? null : page.nextLink;
+	}
+	
+	
+	// A page of native entities along with the link to the next page, if any
+	public static class Page<T> {
+		private final List<T> items;
+		private final String nextLink;
+		
+		public Page(List<T> items, String nextLink) {
+			this.items = items;
+			this.nextLink = nextLink;
+		}
+		
+		public List<T> items() {
+			return this.items;
+		}
+		
+		public String nextLink() {
+			return this.nextLink;
+		}
+	}
+}
\ No newline at end of file
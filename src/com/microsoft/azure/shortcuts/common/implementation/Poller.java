@@ -0,0 +1,258 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.microsoft.azure.shortcuts.common.Predicate;
+import com.microsoft.azure.shortcuts.common.Refreshable;
+
+// Waits for entities to reach a condition, such as a provisioning state, without a sleeping thread per entity. A single scheduler
+// thread keeps track of all the waits, and hands the checks that are due to the executors. The checks that are due at the same time
+// and share a refresher are made with a single refresh, so that collections may refresh many entities with one call to Azure.
+// Each entity is checked less and less often while its condition is not met, as long running operations take minutes
+public final class Poller {
+	static final long TICK = 250;
+	static final long INITIAL_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+	static final long MAX_INTERVAL = TimeUnit.SECONDS.toMillis(30);
+	static final double BACKOFF = 1.5;
+	
+	private static final ConcurrentLinkedQueue<Poll<?>> POLLS = new ConcurrentLinkedQueue<>();
+	private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "azure-shortcuts-poller");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	static {
+		SCHEDULER.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				dispatchDueChecks();
+			}
+		}, TICK, TICK, TimeUnit.MILLISECONDS);
+	}
+	
+	private Poller() {
+	}
+	
+	
+	// Refreshes entities from Azure in place
+	public interface Refresher<T> {
+		void refresh(List<T> entities) throws Exception;
+	}
+	
+	
+	// Returns a refresher refreshing a single entity with its own refresh, so that its checks are never batched with others
+	public static <T> Refresher<T> individually() {
+		return new Refresher<T>() {
+			@Override
+			public void refresh(List<T> entities) throws Exception {
+				for(T entity : entities) {
+					((Refreshable<?>) entity).refresh();
+				}
+			}
+		};
+	}
+	
+	
+	// Waits until the entity meets the condition, returning a future of the entity that fails with a TimeoutException 
+	// if the condition is still not met after the timeout, or with the failure of a refresh
+	public static <T> Future<T> waitUntil(
+			T entity, 
+			Predicate<? super T> predicate, 
+			Refresher<T> refresher, 
+			long timeout, 
+			TimeUnit unit, 
+			Executor executor) {
+		Poll<T> poll = new Poll<>(entity, predicate, refresher, unit.toMillis(timeout), executor);
+		POLLS.add(poll);
+		return poll;
+	}
+	
+	
+	// Waits until the condition is true, checking it less and less often
+	public static Future<?> waitUntil(final Callable<Boolean> condition, long timeout, TimeUnit unit, Executor executor) {
+		final boolean[] isMet = { false };
+		return waitUntil(isMet, new Predicate<boolean[]>() {
+			@Override
+			public boolean test(boolean[] isMet) {
+				return isMet[0];
+			}
+		}, new Refresher<boolean[]>() {
+			@Override
+			public void refresh(List<boolean[]> entities) throws Exception {
+				isMet[0] = Boolean.TRUE.equals(condition.call());
+			}
+		}, timeout, unit, executor);
+	}
+	
+	
+	// Collects the checks that are due, grouped by refresher, and runs each group on its executor
+	private static void dispatchDueChecks() {
+		final long now = System.currentTimeMillis();
+		final HashMap<Refresher<?>, List<Poll<?>>> dueChecks = new HashMap<>();
+		for(Iterator<Poll<?>> iterator = POLLS.iterator(); iterator.hasNext(); ) {
+			Poll<?> poll = iterator.next();
+			if(poll.isDone()) {
+				// Met, failed or cancelled
+				iterator.remove();
+			} else if(!poll.checking && poll.dueAt <= now) {
+				poll.checking = true;
+				List<Poll<?>> group = dueChecks.get(poll.refresher);
+				if(group == null) {
+					group = new ArrayList<>();
+					dueChecks.put(poll.refresher, group);
+				}
+				group.add(poll);
+			}
+		}
+		
+		for(Map.Entry<Refresher<?>, List<Poll<?>>> dueCheck : dueChecks.entrySet()) {
+			final Refresher<?> refresher = dueCheck.getKey();
+			final List<Poll<?>> polls = dueCheck.getValue();
+			try {
+				polls.get(0).executor.execute(new Runnable() {
+					@Override
+					public void run() {
+						check(refresher, polls);
+					}
+				});
+			} catch(RuntimeException e) {
+				for(Poll<?> poll : polls) {
+					poll.fail(e);
+				}
+			}
+		}
+	}
+	
+	
+	// Refreshes the entities of the polls at once, then checks each one against its condition
+	@SuppressWarnings("unchecked")
+	private static <T> void check(Refresher<?> someRefresher, List<Poll<?>> somePolls) {
+		final Refresher<T> refresher = (Refresher<T>) someRefresher;
+		final List<Poll<T>> polls = (List<Poll<T>>) (List<?>) somePolls;
+		final ArrayList<T> entities = new ArrayList<>();
+		for(Poll<T> poll : polls) {
+			entities.add(poll.entity);
+		}
+		
+		final Object activity = (Activity.LISTENER != null) ? Activity.LISTENER.pollStarted(entities.size()) : null;
+		int met = 0;
+		Exception failure = null;
+		try {
+			refresher.refresh(entities);
+		} catch(Exception e) {
+			failure = e;
+		}
+		
+		for(Poll<T> poll : polls) {
+			try {
+				if(failure != null && polls.size() > 1) {
+					// Do not let one entity failing to refresh fail the waits on the others
+					refresher.refresh(Collections.singletonList(poll.entity));
+				} else if(failure != null) {
+					throw failure;
+				}
+				
+				if(poll.predicate.test(poll.entity)) {
+					poll.succeed();
+					met++;
+				} else {
+					poll.reschedule();
+				}
+			} catch(Exception e) {
+				poll.fail(e);
+			}
+		}
+		
+		if(Activity.LISTENER != null) {
+			Activity.LISTENER.pollEnded(activity, met);
+		}
+	}
+	
+	
+	// The wait for an entity to meet a condition, which is also the future of its outcome
+	private static class Poll<T> extends FutureTask<T> {
+		private final T entity;
+		private final Predicate<? super T> predicate;
+		private final Refresher<T> refresher;
+		private final Executor executor;
+		private final long timeout;
+		private final long deadline;
+		private long interval = INITIAL_INTERVAL;
+		private volatile long dueAt = System.currentTimeMillis();
+		private volatile boolean checking = false;
+		
+		Poll(T entity, Predicate<? super T> predicate, Refresher<T> refresher, long timeout, Executor executor) {
+			super(new Callable<T>() {
+				@Override
+				public T call() {
+					throw new IllegalStateException("The outcome of a wait is set by the poller");
+				}
+			});
+			this.entity = entity;
+			this.predicate = predicate;
+			this.refresher = refresher;
+			this.executor = executor;
+			this.timeout = timeout;
+			this.deadline = System.currentTimeMillis() + timeout;
+		}
+		
+		void succeed() {
+			this.set(this.entity);
+		}
+		
+		void fail(Exception e) {
+			this.setException(e);
+		}
+		
+		// Schedules the next check further away than the last one, but no later than the deadline
+		void reschedule() {
+			final long now = System.currentTimeMillis();
+			if(now >= this.deadline) {
+				this.fail(new TimeoutException(String.format("The condition was not met within %d ms", this.timeout)));
+				return;
+			}
+			
+			this.dueAt = Math.min(now + this.interval, this.deadline);
+			this.interval = Math.min((long) (this.interval * BACKOFF), MAX_INTERVAL);
+			this.checking = false;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.windowsazure.core.pipeline.filter.ServiceRequestContext;
+import com.microsoft.windowsazure.core.pipeline.filter.ServiceResponseContext;
+import com.microsoft.windowsazure.core.pipeline.filter.ServiceResponseFilter;
+
+// Records how long Azure asks to wait before retrying a throttled or unavailable request, so that the retrying proxy
+// does not retry it sooner. The synchronous calls of the SDK send their requests on the calling thread, so the wait 
+// is kept per thread
+public final class RetryAfterFilter implements ServiceResponseFilter {
+	public static final RetryAfterFilter INSTANCE = new RetryAfterFilter();
+	
+	private static final String RETRY_AFTER_HEADER = "Retry-After";
+	private static final ThreadLocal<Long> RETRY_AFTER = new ThreadLocal<>();
+	
+	private RetryAfterFilter() {
+	}
+	
+	
+	@Override
+	public void filter(ServiceRequestContext request, ServiceResponseContext response) {
+		if(response.getStatus() == 429 || response.getStatus() == 503) {
+			final String header = response.getHeader(RETRY_AFTER_HEADER);
+			if(header != null) {
+				RETRY_AFTER.set(parse(header, 0));
+			}
+		}
+	}
+	
+	
+	// Forgets the wait asked for by an earlier response of the current thread
+	static void clear() {
+		RETRY_AFTER.remove();
+	}
+	
+	
+	// Returns the number of milliseconds the last response of the current thread asked to wait, or 0 if none
+	static long take() {
+		final Long millis = RETRY_AFTER.get();
+		RETRY_AFTER.remove();
+		return (millis != null) ? millis : 0;
+	}
+	
+	
+	// Parses a Retry-After header, either a number of seconds or an HTTP date, into the number of milliseconds to wait,
+	// or returns the default if the header is missing or malformed
+	public static long parse(String header, long defaultMillis) {
+		if(header == null || header.trim().isEmpty()) {
+			return defaultMillis;
+		} 
+		
+		try {
+			return TimeUnit.SECONDS.toMillis(Math.max(Long.parseLong(header.trim()), 0));
+		} catch(NumberFormatException e) {
+			// Not a number of seconds, so it should be a date
+		}
+		
+		try {
+			SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+			format.setTimeZone(TimeZone.getTimeZone("GMT"));
+			return Math.max(format.parse(header.trim()).getTime() - System.currentTimeMillis(), 0);
+		} catch(ParseException e) {
+			return defaultMillis;
+		}
+	}
+}
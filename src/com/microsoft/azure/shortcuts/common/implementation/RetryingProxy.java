@@ -0,0 +1,417 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.microsoft.azure.shortcuts.common.ActivityListener;
+import com.microsoft.azure.shortcuts.common.Metrics;
+import com.microsoft.azure.shortcuts.common.RetryPolicy;
+import com.microsoft.windowsazure.core.OperationResponse;
+import com.microsoft.windowsazure.core.ResourceIdentity;
+import com.microsoft.windowsazure.exception.ServiceException;
+
+// Applies a retry policy to the calls of the operations an SDK client exposes, by proxying the client and operations interfaces.
+// Each attempt of a call is reported to the metrics, to the activity listener and, within a traced operation, as a span of the
+// current step, while the local methods of the client go straight to it. The circuit breakers are kept per operations interface,
+// so that one failing resource provider does not stop the calls to the others
+public final class RetryingProxy implements InvocationHandler {
+	// Method name prefixes of the SDK calls that do not change anything
+	private static final String[] READS = { "get", "list", "check", "exists" };
+	
+	// Method name prefixes of the SDK calls that are PUT or DELETE requests, which may be repeated with the same result.
+	// Setting the network configuration replaces the whole document, so repeating it may undo a concurrent change, and 
+	// is left to the network collection which merges its change again first
+	private static final String[] IDEMPOTENT_WRITES = { 
+		"createOrUpdate", "beginCreatingOrUpdating", 
+		"delete", "beginDeleting", 
+		"update", "beginUpdating" };
+	
+	// How many characters of the names of a call to report at most
+	private static final int MAX_NAMES_LENGTH = 256;
+	
+	// Collection and resource type tags of the calls, by SDK interface
+	private static final ConcurrentHashMap<Class<?>, String[]> TAGS = new ConcurrentHashMap<>();
+	
+	private final Object target;
+	private final RetryPolicy policy;
+	private final AtomicReference<Metrics> metrics;
+	private final ConcurrentHashMap<String, Breaker> breakers;
+	
+	// The proxies of the operations exposed by the client, by getter, so that they are not created again at each call
+	private final ConcurrentHashMap<Method, Wrapped> operations = new ConcurrentHashMap<>();
+	
+	private RetryingProxy(Object target, RetryPolicy policy, AtomicReference<Metrics> metrics, ConcurrentHashMap<String, Breaker> breakers) {
+		this.target = target;
+		this.policy = policy;
+		this.metrics = metrics;
+		this.breakers = breakers;
+	}
+	
+	
+	// Returns the client retrying its calls according to the policy and reporting them to the metrics, both read at each call 
+	// so that they may be changed later
+	public static <T> T wrap(T client, Class<T> type, RetryPolicy policy, AtomicReference<Metrics> metrics) {
+		return type.cast(wrap(client, type, policy, metrics, new ConcurrentHashMap<String, Breaker>()));
+	}
+	
+	
+	private static Object wrap(Object target, Class<?> type, RetryPolicy policy, AtomicReference<Metrics> metrics, ConcurrentHashMap<String, Breaker> breakers) {
+		return Proxy.newProxyInstance(
+			type.getClassLoader(), 
+			new Class<?>[] { type }, 
+			new RetryingProxy(target, policy, metrics, breakers));
+	}
+	
+	
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		final Class<?> returnType = method.getReturnType();
+		if(method.getDeclaringClass() == Object.class || Future.class.isAssignableFrom(returnType)) {
+			// Asynchronous calls report their failures through the future, so they are left alone
+			return invoke(method, args);
+		} else if(isOperations(returnType)) {
+			// Retry the calls of the operations exposed by the client too
+			return this.operationsOf(method, args);
+		} else if(!isOperations(method.getDeclaringClass())) {
+			// The other methods of the client, such as getBaseUri or withRequestFilterFirst, do not call Azure
+			return invoke(method, args);
+		}
+		
+		// Tag the call only when measured, traced or listened to, so that the calls cost nothing more otherwise
+		final Metrics metrics = this.metrics.get();
+		final boolean measured = (metrics != Metrics.NONE);
+		final SpanImpl step = SpanImpl.current();
+		final ActivityListener listener = Activity.LISTENER;
+		final String[] tags = (measured || step != null || listener != null) ? tagsOf(method, args) : null;
+		final String operation = (step != null || listener != null) ? tags[0] + "." + tags[1] : null;
+		final String names = (step != null || listener != null) ? namesOf(args) : null;
+		
+		final boolean idempotent = startsWith(method.getName(), READS) 
+			|| (this.policy.isRetryingWrites() && startsWith(method.getName(), IDEMPOTENT_WRITES));
+		final Breaker breaker = this.breakerOf(method.getDeclaringClass().getSimpleName());
+		breaker.check(this.policy);
+		for(int attempt = 1; ; attempt++) {
+			final long started = measured ? started(metrics, tags) : 0;
+			final SpanImpl span = (step != null) ? step.startChild(operation, names) : null;
+			final Object call = (listener != null) ? listener.callStarted(operation, names) : null;
+			final Object result;
+			RetryAfterFilter.clear();
+			try {
+				result = invoke(method, args);
+			} catch(Throwable failure) {
+				if(measured) {
+					completed(metrics, tags, started, statusOf(failure), failure);
+				}
+				if(span != null) {
+					span.end(statusOf(failure), failure);
+				}
+				if(listener != null) {
+					listener.callEnded(call, statusOf(failure), failure);
+				}
+				
+				final Transience transience = transience(failure);
+				if(transience == Transience.NONE) {
+					// The endpoint did respond, so it is healthy even if the call was wrong
+					breaker.succeeded();
+					throw failure;
+				} 
+				
+				breaker.failed(this.policy);
+				if(attempt >= this.policy.maxAttempts() 
+						|| (transience == Transience.IF_IDEMPOTENT && !idempotent) 
+						|| breaker.isOpen(this.policy)) {
+					throw failure;
+				}
+				
+				// Azure may ask to wait longer than the policy would when throttling the call or while unavailable
+				final long delay = Math.max(this.policy.delay(attempt), RetryAfterFilter.take());
+				final Object backoff = (listener != null) ? listener.backoffStarted(operation, attempt, delay) : null;
+				try {
+					Thread.sleep(delay);
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw failure;
+				} finally {
+					if(listener != null) {
+						listener.backoffEnded(backoff);
+					}
+				}
+				continue;
+			}
+			
+			if(measured) {
+				completed(metrics, tags, started, statusOf(result), null);
+			}
+			if(span != null) {
+				span.end(statusOf(result), null);
+			}
+			if(listener != null) {
+				listener.callEnded(call, statusOf(result), null);
+			}
+			breaker.succeeded();
+			return result;
+		}
+	}
+	
+	
+	private Object invoke(Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(this.target, args);
+		} catch(InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+	
+	
+	// Returns the proxy of the operations returned by the getter, wrapping them again only if the client returns other operations
+	private Object operationsOf(Method method, Object[] args) throws Throwable {
+		final Object target = invoke(method, args);
+		Wrapped wrapped = this.operations.get(method);
+		if(wrapped == null || wrapped.target != target) {
+			wrapped = new Wrapped(target, wrap(target, method.getReturnType(), this.policy, this.metrics, this.breakers));
+			this.operations.put(method, wrapped);
+		}
+		return wrapped.proxy;
+	}
+	
+	
+	// Returns the collection, verb and resource type tags of the call
+	private static String[] tagsOf(Method method, Object[] args) {
+		final Class<?> type = method.getDeclaringClass();
+		String[] tags = TAGS.get(type);
+		if(tags == null) {
+			// The collection is named after the operations interface, and the resource type after the provider of the SDK package,
+			// the classic SDK packages mapping to the classic providers
+			final String collection = type.getSimpleName().substring(0, type.getSimpleName().length() - "Operations".length());
+			final String packageName = type.getPackage().getName();
+			final String provider = packageName.substring(packageName.lastIndexOf('.') + 1);
+			final String resourceType = (packageName.startsWith("com.microsoft.windowsazure.") ? "Microsoft.Classic" : "Microsoft.") 
+				+ Character.toUpperCase(provider.charAt(0)) + provider.substring(1);
+			tags = new String[] { collection, resourceType };
+			TAGS.put(type, tags);
+		}
+		
+		// The calls on generic resources tell the resource type they target
+		String resourceType = tags[1];
+		if(args != null) {
+			for(Object arg : args) {
+				if(arg instanceof ResourceIdentity) {
+					final ResourceIdentity identity = (ResourceIdentity) arg;
+					resourceType = identity.getResourceProviderNamespace() + "/" + identity.getResourceType();
+					break;
+				}
+			}
+		}
+		
+		return new String[] { tags[0], method.getName(), resourceType };
+	}
+	
+	
+	// Returns the names the call is made with, such as its resource group and resource names, or null if none.
+	// The SDK calls take the names first, so the arguments past them are left out, as they may be whole XML or JSON 
+	// payloads, and the names are truncated in case a payload still comes first
+	private static String namesOf(Object[] args) {
+		StringBuilder names = null;
+		if(args != null) {
+			for(Object arg : args) {
+				final String name;
+				if(arg instanceof String) {
+					name = (String) arg;
+				} else if(arg instanceof ResourceIdentity) {
+					name = ((ResourceIdentity) arg).getResourceName();
+				} else {
+					break;
+				}
+				
+				names = (names == null) ? new StringBuilder() : names.append('/');
+				names.append(name);
+				if(names.length() > MAX_NAMES_LENGTH) {
+					names.setLength(MAX_NAMES_LENGTH);
+					names.append("...");
+					break;
+				}
+			}
+		}
+		return (names != null) ? names.toString() : null;
+	}
+	
+	
+	private static long started(Metrics metrics, String[] tags) {
+		metrics.callStarted(tags[0], tags[1], tags[2]);
+		return System.nanoTime();
+	}
+	
+	
+	private static void completed(Metrics metrics, String[] tags, long started, int status, Throwable failure) {
+		metrics.callCompleted(tags[0], tags[1], tags[2], System.nanoTime() - started, status, failure);
+	}
+	
+	
+	private static int statusOf(Object result) {
+		return (result instanceof OperationResponse) ? ((OperationResponse) result).getStatusCode() : 0;
+	}
+	
+	
+	private static int statusOf(Throwable failure) {
+		for(Throwable cause = failure; cause != null; cause = cause.getCause()) {
+			if(cause instanceof ServiceException) {
+				return ((ServiceException) cause).getHttpStatusCode();
+			}
+		}
+		return 0;
+	}
+	
+	
+	private Breaker breakerOf(String endpoint) {
+		Breaker breaker = this.breakers.get(endpoint);
+		if(breaker == null) {
+			Breaker newBreaker = new Breaker(endpoint);
+			breaker = this.breakers.putIfAbsent(endpoint, newBreaker);
+			if(breaker == null) {
+				breaker = newBreaker;
+			}
+		}
+		return breaker;
+	}
+	
+	
+	// Whether the type is one of the operations interfaces of the SDK, whose methods are the calls to Azure
+	private static boolean isOperations(Class<?> type) {
+		return type.isInterface() && type.getSimpleName().endsWith("Operations");
+	}
+	
+	
+	private static boolean startsWith(String name, String[] prefixes) {
+		for(String prefix : prefixes) {
+			if(name.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	
+	// Operations of the client along with their proxy
+	private static class Wrapped {
+		final Object target;
+		final Object proxy;
+		
+		Wrapped(Object target, Object proxy) {
+			this.target = target;
+			this.proxy = proxy;
+		}
+	}
+	
+	
+	// Which calls a failure may be retried for
+	private enum Transience {
+		// The failure is not transient, so retrying would fail the same way
+		NONE,
+		
+		// Azure did not process the request, so any call may be retried
+		ALWAYS,
+		
+		// Azure may have processed the request, so only idempotent calls may be retried
+		IF_IDEMPOTENT
+	}
+	
+	
+	// Classifies the failure, or the first cause of it that tells
+	private static Transience transience(Throwable failure) {
+		for(Throwable cause = failure; cause != null; cause = cause.getCause()) {
+			if(cause instanceof ServiceException) {
+				switch(((ServiceException) cause).getHttpStatusCode()) {
+				case 429:
+					return Transience.ALWAYS;
+				case 408:
+				case 500:
+				case 502:
+				case 503:
+				case 504:
+					return Transience.IF_IDEMPOTENT;
+				default:
+					// Without a status code, the failure may still be explained by its cause
+					if(((ServiceException) cause).getHttpStatusCode() > 0) {
+						return Transience.NONE;
+					}
+				}
+			} else if(cause instanceof ConnectException 
+					|| cause instanceof UnknownHostException 
+					|| cause instanceof NoRouteToHostException) {
+				return Transience.ALWAYS;
+			} else if(cause instanceof IOException) {
+				return Transience.IF_IDEMPOTENT;
+			}
+		}
+		
+		return Transience.NONE;
+	}
+	
+	
+	// Counts the consecutive transient failures of an endpoint, and fails calls fast while too many occurred recently.
+	// Once the cooldown is over, calls go through again, the next failure opening the breaker again right away
+	private static class Breaker {
+		private final String endpoint;
+		private int failures = 0;
+		private long openUntil = 0;
+		
+		Breaker(String endpoint) {
+			this.endpoint = endpoint;
+		}
+		
+		synchronized boolean isOpen(RetryPolicy policy) {
+			return policy.breakerThreshold() > 0 
+				&& this.failures >= policy.breakerThreshold() 
+				&& System.currentTimeMillis() < this.openUntil;
+		}
+		
+		synchronized void check(RetryPolicy policy) {
+			if(this.isOpen(policy)) {
+				throw new RejectedExecutionException(String.format(
+					"Not calling %s for now after %d consecutive transient failures", 
+					this.endpoint, 
+					this.failures));
+			}
+		}
+		
+		synchronized void succeeded() {
+			this.failures = 0;
+		}
+		
+		synchronized void failed(RetryPolicy policy) {
+			this.failures++;
+			if(policy.breakerThreshold() > 0 && this.failures >= policy.breakerThreshold()) {
+				this.openUntil = System.currentTimeMillis() + policy.breakerCooldown();
+			}
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.security.KeyPair;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+// Builds self-signed X.509 v3 certificates in-process, DER-encoding the few structures needed since the JDK has no public API for it
+final class SelfSignedCertificate {
+	private static final int[] SHA256_WITH_RSA = { 1, 2, 840, 113549, 1, 1, 11 };
+	private static final int[] COMMON_NAME = { 2, 5, 4, 3 };
+	private static final SecureRandom RANDOM = new SecureRandom();
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+	
+	private SelfSignedCertificate() {
+	}
+	
+	
+	// Returns a certificate for the public key of the pair, issued to and by the common name and signed with the private key of the pair
+	static X509Certificate create(KeyPair keyPair, String cnName, int daysValid) throws Exception {
+		final byte[] name = sequence(set(sequence(oid(COMMON_NAME), tlv(0x0C, cnName.getBytes(UTF8)))));
+		final byte[] algorithm = sequence(oid(SHA256_WITH_RSA), tlv(0x05, new byte[0]));
+		
+		final Calendar notAfter = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		final Date notBefore = notAfter.getTime();
+		notAfter.add(Calendar.DAY_OF_YEAR, daysValid);
+		
+		final byte[] tbsCertificate = sequence(
+			tlv(0xA0, integer(BigInteger.valueOf(2))), // Version 3
+			integer(new BigInteger(63, RANDOM).add(BigInteger.ONE)),
+			algorithm,
+			name,
+			sequence(time(notBefore), time(notAfter.getTime())),
+			name,
+			keyPair.getPublic().getEncoded());
+		
+		final Signature signature = Signature.getInstance("SHA256withRSA");
+		signature.initSign(keyPair.getPrivate());
+		signature.update(tbsCertificate);
+		final byte[] signatureBits = signature.sign();
+		final byte[] bitString = new byte[signatureBits.length + 1]; // Leading byte is the number of unused bits
+		System.arraycopy(signatureBits, 0, bitString, 1, signatureBits.length);
+		
+		final byte[] certificate = sequence(tbsCertificate, algorithm, tlv(0x03, bitString));
+		return (X509Certificate) CertificateFactory.getInstance("X.509").generateCertificate(new ByteArrayInputStream(certificate));
+	}
+	
+	
+	/*********************************************************
+	 * DER encoding helpers
+	 *********************************************************/
+	
+	private static byte[] tlv(int tag, byte[] value) {
+		final ByteArrayOutputStream output = new ByteArrayOutputStream(value.length + 6);
+		output.write(tag);
+		if(value.length < 0x80) {
+			output.write(value.length);
+		} else {
+			int lengthBytes = (32 - Integer.numberOfLeadingZeros(value.length) + 7) / 8;
+			output.write(0x80 | lengthBytes);
+			for(int i = lengthBytes - 1; i >= 0; i--) {
+				output.write(value.length >>> (8 * i));
+			}
+		}
+		output.write(value, 0, value.length);
+		return output.toByteArray();
+	}
+	
+	private static byte[] concat(byte[]... parts) {
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		for(byte[] part : parts) {
+			output.write(part, 0, part.length);
+		}
+		return output.toByteArray();
+	}
+	
+	private static byte[] sequence(byte[]... elements) {
+		return tlv(0x30, concat(elements));
+	}
+	
+	private static byte[] set(byte[]... elements) {
+		return tlv(0x31, concat(elements));
+	}
+	
+	private static byte[] integer(BigInteger value) {
+		return tlv(0x02, value.toByteArray());
+	}
+	
+	private static byte[] oid(int[] components) {
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		output.write(40 * components[0] + components[1]);
+		for(int i = 2; i < components.length; i++) {
+			int component = components[i];
+			int groups = Math.max((32 - Integer.numberOfLeadingZeros(component) + 6) / 7, 1);
+			for(int group = groups - 1; group >= 0; group--) {
+				int bits = (component >>> (7 * group)) & 0x7F;
+				output.write((group > 0) ? (bits | 0x80) : bits);
+			}
+		}
+		return tlv(0x06, output.toByteArray());
+	}
+	
+	// Encodes the time as UTCTime until 2049 and as GeneralizedTime after, as RFC 5280 requires
+	private static byte[] time(Date date) {
+		final Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+		calendar.setTime(date);
+		final boolean isUtcTime = calendar.get(Calendar.YEAR) < 2050;
+		final SimpleDateFormat format = new SimpleDateFormat(isUtcTime ? "yyMMddHHmmss'Z'" : "yyyyMMddHHmmss'Z'");
+		format.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return tlv(isUtcTime ? 0x17 : 0x18, format.format(date).getBytes(UTF8));
+	}
+}
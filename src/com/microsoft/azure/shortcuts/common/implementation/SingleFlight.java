@@ -0,0 +1,59 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+// Coalesces concurrent reads of the same key, so that only the first caller reads from Azure while the others wait for 
+// and share its result, or its failure. Once the read completes, the next caller reads again
+public class SingleFlight<K, V> {
+	private final ConcurrentHashMap<K, FutureTask<V>> flights = new ConcurrentHashMap<>();
+	
+	public V get(K key, Callable<V> loader) throws Exception {
+		FutureTask<V> flight = new FutureTask<>(loader);
+		FutureTask<V> inFlight = this.flights.putIfAbsent(key, flight);
+		if(inFlight == null) {
+			// Read in the calling thread, on behalf of any caller arriving meanwhile
+			try {
+				flight.run();
+			} finally {
+				this.flights.remove(key, flight);
+			}
+		} else {
+			flight = inFlight;
+		}
+		
+		try {
+			return flight.get();
+		} catch(ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof Exception) {
+				throw (Exception) cause;
+			} else if(cause instanceof Error) {
+				throw (Error) cause;
+			} else {
+				throw e;
+			}
+		}
+	}
+}
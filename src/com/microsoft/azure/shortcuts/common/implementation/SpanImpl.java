@@ -0,0 +1,285 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.shortcuts.common.Indexable;
+import com.microsoft.azure.shortcuts.common.Span;
+import com.microsoft.azure.shortcuts.common.Tracer;
+
+// Records the spans of a traced operation. The span of the step a thread is running is kept as the current span of the thread, 
+// so that the calls to Azure made by the step are recorded under it without passing it around. Tasks handed to other threads 
+// carry the current span over with traced()
+public final class SpanImpl implements Span {
+	private static final ThreadLocal<SpanImpl> CURRENT = new ThreadLocal<>();
+	private static final int BAR_WIDTH = 50;
+	
+	private final Tracer tracer;
+	private final SpanImpl parent;
+	private final SpanImpl root;
+	private final String name;
+	private final long started;
+	private final List<Span> children = new ArrayList<>();
+	private volatile String resourceId;
+	private volatile long ended = 0;
+	private volatile int status = 0;
+	private volatile Throwable failure = null;
+	
+	private SpanImpl(Tracer tracer, SpanImpl parent, String name, String resourceId) {
+		this.tracer = tracer;
+		this.parent = parent;
+		this.root = (parent != null) ? parent.root : this;
+		this.name = name;
+		this.resourceId = resourceId;
+		this.started = System.nanoTime();
+	}
+	
+	
+	// Returns the span of the step the calling thread is running, or null if it is not running a traced operation
+	public static SpanImpl current() {
+		return CURRENT.get();
+	}
+	
+	
+	// Runs the task as a step of the operation the calling thread is running, or as a new operation traced by the tracer.
+	// The resource id of the span is that of the result, if it has one
+	public static <T> T call(Tracer tracer, String name, Callable<T> task) throws Exception {
+		final SpanImpl parent = CURRENT.get();
+		if(parent != null) {
+			return parent.startChild(name, null).run(task);
+		} else if(tracer != null && tracer != Tracer.NONE) {
+			return new SpanImpl(tracer, null, name, null).run(task);
+		} else {
+			return task.call();
+		}
+	}
+	
+	
+	// Returns the task running as a step of the operation the calling thread is running, whichever thread it runs on later 
+	public static <T> Callable<T> traced(final String name, final Callable<T> task) {
+		final SpanImpl parent = CURRENT.get();
+		if(parent == null) {
+			return task;
+		}
+		
+		return new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				return parent.startChild(name, null).run(task);
+			}
+		};
+	}
+	
+	
+	// Starts the span of a step of this one, without making it current, as for a call to Azure
+	public SpanImpl startChild(String name, String resourceId) {
+		SpanImpl child = new SpanImpl(this.tracer, this, name, resourceId);
+		synchronized(this.children) {
+			this.children.add(child);
+		}
+		return child;
+	}
+	
+	
+	// Ends the span and reports it to the tracer
+	public void end(int status, Throwable failure) {
+		this.status = status;
+		this.failure = failure;
+		this.ended = System.nanoTime();
+		this.tracer.spanEnded(this);
+	}
+	
+	
+	private <T> T run(Callable<T> task) throws Exception {
+		final SpanImpl previous = CURRENT.get();
+		CURRENT.set(this);
+		try {
+			T result = task.call();
+			if(result instanceof Indexable) {
+				this.resourceId = ((Indexable) result).id();
+			}
+			this.end(0, null);
+			return result;
+		} catch(Exception e) {
+			this.end(0, e);
+			throw e;
+		} catch(Error e) {
+			this.end(0, e);
+			throw e;
+		} finally {
+			CURRENT.set(previous);
+		}
+	}
+	
+	
+	@Override
+	public String name() {
+		return this.name;
+	}
+	
+	@Override
+	public String resourceId() {
+		return this.resourceId;
+	}
+	
+	@Override
+	public int status() {
+		return this.status;
+	}
+	
+	@Override
+	public Throwable failure() {
+		return this.failure;
+	}
+	
+	@Override
+	public long start(TimeUnit unit) {
+		return unit.convert(this.started - this.root.started, TimeUnit.NANOSECONDS);
+	}
+	
+	@Override
+	public long duration(TimeUnit unit) {
+		return unit.convert(this.endNanos() - this.started, TimeUnit.NANOSECONDS);
+	}
+	
+	@Override
+	public Span parent() {
+		return this.parent;
+	}
+	
+	@Override
+	public List<Span> children() {
+		final ArrayList<Span> children;
+		synchronized(this.children) {
+			children = new ArrayList<>(this.children);
+		}
+		
+		// Children are added as they start, but they may start on other threads in a slightly different order
+		Collections.sort(children, new Comparator<Span>() {
+			@Override
+			public int compare(Span a, Span b) {
+				return Long.compare(((SpanImpl) a).started, ((SpanImpl) b).started);
+			}
+		});
+		return children;
+	}
+	
+	
+	@Override
+	public String waterfall() {
+		// Lay the lines out first to align the timings after the longest label
+		final ArrayList<SpanImpl> spans = new ArrayList<>();
+		final ArrayList<String> labels = new ArrayList<>();
+		layOut(this, "", true, spans, labels);
+		int labelWidth = 0;
+		for(String label : labels) {
+			labelWidth = Math.max(labelWidth, label.length());
+		}
+		
+		final long total = Math.max(this.endNanos() - this.started, 1);
+		final StringBuilder report = new StringBuilder();
+		for(int i = 0; i < spans.size(); i++) {
+			final SpanImpl span = spans.get(i);
+			final long offset = span.started - this.started;
+			final long duration = span.endNanos() - span.started;
+			final int barStart = (int) Math.min(offset * BAR_WIDTH / total, BAR_WIDTH - 1);
+			final int barLength = (int) Math.max(Math.min(duration * BAR_WIDTH / total, BAR_WIDTH - barStart), 1);
+			
+			report.append(String.format("%-" + labelWidth + "s %8d ms %8d ms |", 
+				labels.get(i), 
+				TimeUnit.NANOSECONDS.toMillis(offset), 
+				TimeUnit.NANOSECONDS.toMillis(duration)));
+			for(int x = 0; x < BAR_WIDTH; x++) {
+				report.append((x >= barStart && x < barStart + barLength) ? '=' : ' ');
+			}
+			report.append("|\n");
+		}
+		return report.toString();
+	}
+	
+	
+	// Lists the span and those under it depth first, with their labels, marking the critical path
+	private static void layOut(SpanImpl span, String indent, boolean critical, List<SpanImpl> spans, List<String> labels) {
+		StringBuilder label = new StringBuilder()
+			.append(critical ? "* " : "  ")
+			.append(indent)
+			.append(span.name);
+		if(span.resourceId != null) {
+			label.append(' ').append(span.resourceId);
+		}
+		if(span.status != 0) {
+			label.append(' ').append(span.status);
+		}
+		if(span.failure != null) {
+			label.append(" FAILED");
+		} else if(span.ended == 0) {
+			label.append(" RUNNING");
+		}
+		spans.add(span);
+		labels.add(label.toString());
+		
+		final List<Span> children = span.children();
+		final Set<Span> criticalChildren = critical ? criticalPath(children) : Collections.<Span>emptySet();
+		for(Span child : children) {
+			layOut((SpanImpl) child, indent + "  ", criticalChildren.contains(child), spans, labels);
+		}
+	}
+	
+	
+	// Returns the steps the span waited for: the one ending last, the one ending last before it started, and so on
+	private static Set<Span> criticalPath(List<Span> children) {
+		final HashSet<Span> path = new HashSet<>();
+		long before = Long.MAX_VALUE;
+		while(true) {
+			SpanImpl last = null;
+			for(Span child : children) {
+				final long end = ((SpanImpl) child).endNanos();
+				if(end <= before && (last == null || end >= last.endNanos())) {
+					last = (SpanImpl) child;
+				}
+			}
+			
+			if(last == null || !path.add(last)) {
+				return path;
+			}
+			before = last.started;
+		}
+	}
+	
+	
+	private long endNanos() {
+		final long ended = this.ended;
+		return (ended != 0) ? ended : System.nanoTime();
+	}
+	
+	
+	@Override
+	public String toString() {
+		return this.name + ((this.resourceId != null) ? " " + this.resourceId : "");
+	}
+}
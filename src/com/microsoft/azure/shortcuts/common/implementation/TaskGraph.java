@@ -0,0 +1,177 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Runs a set of interdependent tasks, starting each task on the executor as soon as all of its dependencies have completed,
+// so that the overall duration is that of the critical path rather than the sum of all the tasks.
+// The thread calling run() also picks up ready tasks while it waits, so the graph completes even if the executor has no spare threads.
+public class TaskGraph {
+	private final Executor executor;
+	private final ArrayList<Node<?>> nodes = new ArrayList<>();
+	private final LinkedBlockingQueue<Node<?>> ready = new LinkedBlockingQueue<>();
+	private final AtomicReference<Throwable> failure = new AtomicReference<>();
+	private final AtomicInteger remaining = new AtomicInteger();
+	private boolean isStarted = false;
+	
+	// Marks the completion of the whole graph in the ready queue
+	private final Node<Void> done = new Node<>(null);
+	
+	public TaskGraph(Executor executor) {
+		this.executor = executor;
+	}
+	
+	
+	/**
+	 * Adds a task to the graph
+	 * @param task The task to run
+	 * @param dependencies The previously added tasks that must complete before this one can start
+	 * @return The node representing the task, which provides its result once the graph has run
+	 */
+	public synchronized <T> Node<T> add(Callable<T> task, Node<?>...dependencies) {
+		if(this.isStarted) {
+			throw new IllegalStateException("Tasks cannot be added after the graph has started running");
+		}
+		
+		Node<T> node = new Node<>(task);
+		for(Node<?> dependency : dependencies) {
+			if(!this.nodes.contains(dependency)) {
+				throw new IllegalArgumentException("Dependencies must be added to the same graph first");
+			}
+			dependency.dependents.add(node);
+			node.pendingDependencies.incrementAndGet();
+		}
+		
+		this.nodes.add(node);
+		return node;
+	}
+	
+	
+	/**
+	 * Runs all the tasks, blocking until they have completed. If any task fails, the tasks that have not started yet are skipped 
+	 * @throws Exception The failure of the first task that failed
+	 */
+	public void run() throws Exception {
+		synchronized(this) {
+			if(this.isStarted) {
+				throw new IllegalStateException("The graph has already been run");
+			}
+			this.isStarted = true;
+		}
+
+		this.remaining.set(this.nodes.size());
+		if(this.nodes.isEmpty()) {
+			return;
+		}
+		
+		// Find the tasks without dependencies before starting any, as running tasks release their dependents
+		ArrayList<Node<?>> roots = new ArrayList<>();
+		for(Node<?> node : this.nodes) {
+			if(node.pendingDependencies.get() == 0) {
+				roots.add(node);
+			}
+		}
+		
+		for(Node<?> node : roots) {
+			schedule(node);
+		}
+		
+		// Help running the ready tasks until all of them have completed
+		for(Node<?> node = this.ready.take(); node != this.done; node = this.ready.take()) {
+			node.run();
+		}
+		
+		Throwable t = this.failure.get();
+		if(t instanceof Exception) {
+			throw (Exception)t;
+		} else if(t instanceof Error) {
+			throw (Error)t;
+		}
+	}
+	
+	
+	// Queues a task whose dependencies have all completed, and asks the executor to run it unless the calling thread gets to it first
+	private void schedule(Node<?> node) {
+		this.ready.add(node);
+		try {
+			this.executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					Node<?> node = ready.poll();
+					if(node == done) {
+						ready.add(done);
+					} else if(node != null) {
+						node.run();
+					}
+				}
+			});
+		} catch(RejectedExecutionException e) {
+			// The thread calling run() will pick the task up from the queue
+		}
+	}
+	
+	
+	// Represents a task within the graph
+	public class Node<T> {
+		private final Callable<T> task;
+		private final ArrayList<Node<?>> dependents = new ArrayList<>();
+		private final AtomicInteger pendingDependencies = new AtomicInteger();
+		private volatile T result;
+		
+		private Node(Callable<T> task) {
+			this.task = task;
+		}
+		
+		/**
+		 * @return The result of the task, available to dependent tasks and after the graph has run
+		 */
+		public T result() {
+			return this.result;
+		}
+		
+		// Runs the task unless another task has failed already, then releases the dependent tasks
+		private void run() {
+			if(failure.get() == null) {
+				try {
+					this.result = this.task.call();
+				} catch(Throwable t) {
+					failure.compareAndSet(null, t);
+				}
+			}
+			
+			for(Node<?> dependent : this.dependents) {
+				if(dependent.pendingDependencies.decrementAndGet() == 0) {
+					schedule(dependent);
+				}
+			}
+			
+			if(remaining.decrementAndGet() == 0) {
+				ready.add(done);
+			}
+		}
+	}
+}
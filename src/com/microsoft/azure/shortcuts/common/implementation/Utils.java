@@ -20,18 +20,36 @@
 package com.microsoft.azure.shortcuts.common.implementation;
 
 
-import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
@@ -47,37 +65,91 @@ import org.xml.sax.SAXException;
 
 public class Utils {
 	
+	// Lazily creates the shared default executor
+	private static class DefaultExecutorHolder {
+		private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "azure-shortcuts-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	
+	// Returns the executor used for concurrent Azure calls when none is configured, backed by daemon threads created as needed
+	public static Executor defaultExecutor() {
+		return DefaultExecutorHolder.EXECUTOR;
+	}
+	
+	
 	// Create a new self-signed public/private key pair for an X.509 certificate packaged inside a PKCS#12 (PFX) file
 	public static File createCertPkcs12(
 			File targetPfxFile, 
-			File jdkDirectory, 
 			String alias, 
 			String password, 
 			String cnName, 
 			int daysValid) throws Exception {
 		
-		final File keytool = getKeytool(jdkDirectory);
-		final String[] commandArgs = { 
-				keytool.toString(), 
-				"-genkey", 
-				"-alias", alias, 
-				"-storetype", "pkcs12", 
-				"-keystore", targetPfxFile.toString(),
-				"-storepass", password,
-				"-validity", String.valueOf(daysValid),
-				"-keyalg", "RSA",
-				"-keysize", "2048",
-				"-storetype", "pkcs12",
-				"-dname", "CN=" + cnName 
-			};
+		final KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		final KeyPair keyPair = generator.generateKeyPair();
+		final X509Certificate certificate = SelfSignedCertificate.create(keyPair, cnName, daysValid);
+		
+		final KeyStore store = KeyStore.getInstance("PKCS12");
+		store.load(null, null);
+		store.setKeyEntry(alias, keyPair.getPrivate(), password.toCharArray(), new Certificate[] { certificate });
+		try(FileOutputStream output = new FileOutputStream(targetPfxFile)) {
+			store.store(output, password.toCharArray());
+		}
+		
+		return targetPfxFile;
+	}
+	
+	
+	// Kept for compatibility, the certificate no longer being created with the keytool of the JDK
+	@Deprecated
+	public static File createCertPkcs12(
+			File targetPfxFile, 
+			File jdkDirectory, 
+			String alias, 
+			String password, 
+			String cnName, 
+			int daysValid) throws Exception {
+		return createCertPkcs12(targetPfxFile, alias, password, cnName, daysValid);
+	}
+	
+	
+	// Creates a PFX file for each common name concurrently on the executor, named after and using as its alias the common name
+	public static Map<String, Future<File>> createCertsPkcs12(
+			Executor executor, 
+			final File targetDirectory, 
+			Collection<String> cnNames, 
+			final String password, 
+			final int daysValid) {
 		
-		invokeCommand(commandArgs, false);
+		// The files are named after the common names, so none may point outside of the target directory
+		for(String cnName : cnNames) {
+			if(cnName == null || cnName.isEmpty() 
+					|| cnName.indexOf('/') >= 0 || cnName.indexOf('\\') >= 0 || cnName.indexOf(':') >= 0 || cnName.indexOf('\0') >= 0) {
+				throw new IllegalArgumentException(String.format("The common name '%s' cannot be used as a file name", cnName));
+			}
+		}
 		
-		if(!targetPfxFile.exists()) {
-			throw new IOException("Failed to create PFX file");
-		} else {
-			return targetPfxFile;
+		LinkedHashMap<String, Future<File>> pfxFiles = new LinkedHashMap<>();
+		for(final String cnName : cnNames) {
+			pfxFiles.put(cnName, Async.submit(executor, new Callable<File>() {
+				@Override
+				public File call() throws Exception {
+					return createCertPkcs12(new File(targetDirectory, cnName + ".pfx"), cnName, password, cnName, daysValid);
+				}
+			}));
 		}
+		
+		return Collections.unmodifiableMap(pfxFiles);
 	}
 	
 	
@@ -85,7 +157,6 @@ public class Utils {
 	public static File createCertPublicFromPkcs12(
 			File sourcePfxFile, 
 			File targetCerFile, 
-			File jdkDirectory,
 			String alias,
 			String password) throws Exception {
 		
@@ -93,91 +164,106 @@ public class Utils {
 			throw new IOException("Incorrect source PFX file path");
 		} 
 		
-		final File keyTool = getKeytool(jdkDirectory);
-		final String[] commandArgs = {
-				keyTool.toString(),
-				"-export", 
-				"-alias", alias,
-				"-storetype", "pkcs12",
-				"-keystore", sourcePfxFile.toString(),
-				"-storepass", password,
-				"-rfc",
-				"-file", targetCerFile.toString()
-		};
-				
-		invokeCommand(commandArgs, true);
+		final KeyStore store = KeyStore.getInstance("PKCS12");
+		try(FileInputStream input = new FileInputStream(sourcePfxFile)) {
+			store.load(input, password.toCharArray());
+		}
 		
-		if(!targetCerFile.exists()) {
-			throw new IOException("Failed to create CER file");
-		} else {
-			return targetCerFile;
+		final Certificate certificate = store.getCertificate(alias);
+		if(certificate == null) {
+			throw new IOException(String.format("No certificate named '%s' in the PFX file", alias));
 		}
+		
+		// Save in the PEM format, as keytool -rfc does
+		final String base64 = base64(certificate.getEncoded());
+		try(Writer writer = new OutputStreamWriter(new FileOutputStream(targetCerFile), "US-ASCII")) {
+			writer.write("-----BEGIN CERTIFICATE-----\n");
+			for(int i = 0; i < base64.length(); i += 64) {
+				writer.write(base64, i, Math.min(64, base64.length() - i));
+				writer.write("\n");
+			}
+			writer.write("-----END CERTIFICATE-----\n");
+		}
+		
+		return targetCerFile;
 	}
 	
 	
-	/**
-	 * Invoke a shell command.
-	 * 
-	 * @param command :Command line to invoke, including arguments
-	 * @param ignoreErrorStream :Set to true if exception is to be thrown when the error stream is not empty.
-	 * @return result :The text contents of the output of the invoked command
-	 * @throws Exception
-	 * @throws IOException
-	 */
-	private static String invokeCommand(String[] command, boolean ignoreErrorStream) throws Exception, IOException {
-		String result, error;
-		InputStream inputStream = null, errorStream = null;
-		BufferedReader inputReader = null, errorReader = null;
-		try {
-			Process process = new ProcessBuilder(command).start();
-			inputStream = process.getInputStream();
-			errorStream = process.getErrorStream();
-			inputReader = new BufferedReader(new InputStreamReader(inputStream));
-			result = inputReader.readLine();
-			process.waitFor();
-			errorReader = new BufferedReader(new InputStreamReader(errorStream));
-			error = errorReader.readLine();
-			if (error != null && !error.isEmpty() && !ignoreErrorStream) {
-				throw new Exception(error, null);
-			}
-		} catch (Exception e) {
-			throw new Exception("Exception occurred while invoking command", e);
-		} finally {
-			if (inputStream != null) {
-				inputStream.close();
-			}
-			if (errorStream != null) {
-				errorStream.close();
-			}
-			if (inputReader != null) {
-				inputReader.close();
-			}
-			if (errorReader != null) {
-				errorReader.close();
-			}
+	private static final char[] BASE64_DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+	
+	// Returns the bytes encoded in base64 with padding, as JAXB is not available on every Java version this runs on
+	static String base64(byte[] bytes) {
+		final StringBuilder encoded = new StringBuilder((bytes.length + 2) / 3 * 4);
+		for(int i = 0; i < bytes.length; i += 3) {
+			final int remaining = bytes.length - i;
+			final int group = (bytes[i] & 0xff) << 16 
+				| ((remaining > 1) ? (bytes[i + 1] & 0xff) << 8 : 0) 
+				| ((remaining > 2) ? (bytes[i + 2] & 0xff) : 0);
+			encoded.append(BASE64_DIGITS[(group >> 18) & 0x3f]);
+			encoded.append(BASE64_DIGITS[(group >> 12) & 0x3f]);
+			encoded.append((remaining > 1) ? BASE64_DIGITS[(group >> 6) & 0x3f] : '=');
+			encoded.append((remaining > 2) ? BASE64_DIGITS[group & 0x3f] : '=');
 		}
-		
-		return result;
+		return encoded.toString();
 	}
 	
 	
-	// Returns the file path to the keytool
-	private static File getKeytool(File jdkDirectory) throws IOException {
-		File binDirectory = new File(jdkDirectory, "bin");
-		if(jdkDirectory == null || !jdkDirectory.isDirectory()) {
-			throw new IOException("Incorrect JDK directory path");
-		} else if(!binDirectory.isDirectory()) {
-			throw new IOException("JDK directory is missing teh bin subdirectory");
-		} else {
-			return new File(binDirectory, "keytool");
+	// Kept for compatibility, the certificate no longer being exported with the keytool of the JDK
+	@Deprecated
+	public static File createCertPublicFromPkcs12(
+			File sourcePfxFile, 
+			File targetCerFile, 
+			File jdkDirectory,
+			String alias,
+			String password) throws Exception {
+		return createCertPublicFromPkcs12(sourcePfxFile, targetCerFile, alias, password);
+	}
+	
+	
+	// The XML processors are not thread-safe, so each thread reuses its own rather than creating new factories on every call
+	private static final ThreadLocal<XPath> XPATH = new ThreadLocal<XPath>() {
+		@Override
+		protected XPath initialValue() {
+			return XPathFactory.newInstance().newXPath();
+		}
+	};
+	
+	private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = new ThreadLocal<DocumentBuilder>() {
+		@Override
+		protected DocumentBuilder initialValue() {
+			try {
+				return DocumentBuilderFactory.newInstance().newDocumentBuilder();
+			} catch (ParserConfigurationException e) {
+				throw new IllegalStateException(e);
+			}
 		}
+	};
+	
+	private static final ThreadLocal<Transformer> TRANSFORMER = new ThreadLocal<Transformer>() {
+		@Override
+		protected Transformer initialValue() {
+			try {
+				return TransformerFactory.newInstance().newTransformer();
+			} catch (TransformerConfigurationException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	};
+	
+	
+	// Returns the document builder of the calling thread, reset for a new document
+	private static DocumentBuilder documentBuilder() {
+		DocumentBuilder builder = DOCUMENT_BUILDER.get();
+		builder.reset();
+		return builder;
 	}
 	
 	
 	// Returns the first node matching the xpath in the xml
 	static public Node findXMLNode(String xml, String xpath) throws XPathExpressionException {
 		final InputSource parentSource = new InputSource(new StringReader(xml));
-		final XPath xpathObject = XPathFactory.newInstance().newXPath();
+		final XPath xpathObject = XPATH.get();
+		xpathObject.reset();
 		return (Node) xpathObject.evaluate(xpath, parentSource, XPathConstants.NODE);
 	}
 	
@@ -198,7 +284,8 @@ public class Utils {
 	// Returns the XML document as a string
 	static String XMLtoString(Document doc) {
 		try {
-			Transformer transformer = TransformerFactory.newInstance().newTransformer();
+			Transformer transformer = TRANSFORMER.get();
+			transformer.reset();
 			StringWriter writer = new StringWriter();
 			transformer.transform(new DOMSource(doc), new StreamResult(writer));
 			return writer.getBuffer().toString();
@@ -210,9 +297,7 @@ public class Utils {
 	
 	// Loads XML from a file
 	public static Document loadXml(File file) throws ParserConfigurationException, SAXException, IOException {
-		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-		DocumentBuilder builder = factory.newDocumentBuilder();
-		return builder.parse(file);
+		return documentBuilder().parse(file);
 	}
 	
 	
@@ -224,7 +309,7 @@ public class Utils {
 
 			// Parse child XML as Node to insert
 			final InputSource insertionSource = new InputSource(new StringReader(childXMLElement));
-			final Document childDoc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(insertionSource);
+			final Document childDoc = documentBuilder().parse(insertionSource);
 
 			// Insert as the last child of the parent
 			final Document parentDoc = parentNode.getOwnerDocument();
@@ -24,10 +24,14 @@ import com.microsoft.azure.shortcuts.common.SupportsDeleting;
 import com.microsoft.azure.shortcuts.common.SupportsGetting;
 import com.microsoft.azure.shortcuts.resources.common.SupportsDeletingByGroup;
 import com.microsoft.azure.shortcuts.resources.common.SupportsGettingByGroup;
+import com.microsoft.azure.shortcuts.resources.common.SupportsListingAsIteratorByGroup;
 import com.microsoft.azure.shortcuts.resources.common.SupportsListingAsMapByGroup;
+import com.microsoft.azure.shortcuts.resources.common.SupportsRefreshingAll;
 
 public interface AvailabilitySets extends 
 	SupportsListingAsMapByGroup<AvailabilitySet>,
+	SupportsListingAsIteratorByGroup<AvailabilitySet>,
+	SupportsRefreshingAll<AvailabilitySet>,
 	SupportsGetting<AvailabilitySet>,
 	SupportsGettingByGroup<AvailabilitySet>,
 	SupportsCreating<AvailabilitySet.DefinitionBlank>,
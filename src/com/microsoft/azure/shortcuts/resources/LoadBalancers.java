@@ -19,17 +19,23 @@
 */
 package com.microsoft.azure.shortcuts.resources;
 
+import com.microsoft.azure.shortcuts.common.SupportsListingAsIterator;
 import com.microsoft.azure.shortcuts.common.SupportsListingAsMap;
 import com.microsoft.azure.shortcuts.common.SupportsCreating;
 import com.microsoft.azure.shortcuts.common.SupportsDeleting;
 import com.microsoft.azure.shortcuts.common.SupportsGetting;
 import com.microsoft.azure.shortcuts.resources.common.SupportsDeletingByGroup;
 import com.microsoft.azure.shortcuts.resources.common.SupportsGettingByGroup;
+import com.microsoft.azure.shortcuts.resources.common.SupportsListingAsIteratorByGroup;
 import com.microsoft.azure.shortcuts.resources.common.SupportsListingAsMapByGroup;
+import com.microsoft.azure.shortcuts.resources.common.SupportsRefreshingAll;
 
 public interface LoadBalancers extends 
 	SupportsListingAsMap<LoadBalancer>,
+	SupportsListingAsIterator<LoadBalancer>,
 	SupportsListingAsMapByGroup<LoadBalancer>,
+	SupportsListingAsIteratorByGroup<LoadBalancer>,
+	SupportsRefreshingAll<LoadBalancer>,
 	SupportsGetting<LoadBalancer>,
 	SupportsGettingByGroup<LoadBalancer>,
 	SupportsCreating<LoadBalancer.DefinitionBlank>,
@@ -19,10 +19,40 @@
 */
 package com.microsoft.azure.shortcuts.resources;
 
+import java.util.concurrent.TimeUnit;
+
 import com.microsoft.azure.shortcuts.common.SupportsListingAsMap;
 import com.microsoft.azure.shortcuts.common.SupportsGetting;
 
 public interface Providers extends 
 	SupportsGetting<Provider>,
 	SupportsListingAsMap<Provider> {
+	
+	/**
+	 * Returns the latest API version of a resource type, fetching the provider from Azure only if it is not already cached
+	 * @param namespace The provider namespace, e.g. "Microsoft.Compute"
+	 * @param resourceType The resource type within the provider namespace, e.g. "virtualMachines"
+	 * @return The latest API version, or null if the provider does not know the resource type
+	 * @throws Exception
+	 */
+	String latestApiVersion(String namespace, String resourceType) throws Exception;
+	
+	/**
+	 * Drops the cached API versions of the specified provider, so they are fetched again when next needed
+	 * @param namespace The provider namespace
+	 */
+	void invalidateApiVersions(String namespace);
+	
+	/**
+	 * Drops all the cached API versions
+	 */
+	void invalidateApiVersions();
+	
+	/**
+	 * Sets for how long the API versions of a provider are cached after it is fetched from Azure
+	 * @param ttl The time to live, or 0 to disable caching
+	 * @param unit The unit of the time to live
+	 * @return The providers collection
+	 */
+	Providers withApiVersionCacheTtl(long ttl, TimeUnit unit);
 }
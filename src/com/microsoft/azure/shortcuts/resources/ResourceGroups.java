@@ -19,16 +19,34 @@
 */
 package com.microsoft.azure.shortcuts.resources;
 
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import com.microsoft.azure.shortcuts.common.SupportsCreating;
 import com.microsoft.azure.shortcuts.common.SupportsDeleting;
+import com.microsoft.azure.shortcuts.common.SupportsListingAsIterator;
 import com.microsoft.azure.shortcuts.common.SupportsListingAsMap;
 import com.microsoft.azure.shortcuts.common.SupportsGetting;
 import com.microsoft.azure.shortcuts.common.SupportsUpdating;
 
 public interface ResourceGroups extends 
 	SupportsListingAsMap<ResourceGroup>,
+	SupportsListingAsIterator<ResourceGroup>,
 	SupportsGetting<ResourceGroup>,
 	SupportsCreating<ResourceGroup.DefinitionBlank>,
 	SupportsDeleting,
 	SupportsUpdating<ResourceGroup.UpdateBlank> {
+	
+	/**
+	 * Waits until a deleted resource group no longer exists, as Azure keeps reporting it for a while after its deletion returns
+	 * @param name The name of the deleted resource group
+	 * @throws java.util.concurrent.TimeoutException If the group still exists after the timeout
+	 */
+	void waitUntilDeleted(String name, long timeout, TimeUnit unit) throws Exception;
+	
+	/**
+	 * Waits asynchronously until a deleted resource group no longer exists
+	 * @return A future completing once the group no longer exists, or failing with a TimeoutException after the timeout
+	 */
+	Future<?> waitUntilDeletedAsync(String name, long timeout, TimeUnit unit);
 }
@@ -1,13 +1,17 @@
 package com.microsoft.azure.shortcuts.resources;
 
 import com.microsoft.azure.shortcuts.common.SupportsDeleting;
+import com.microsoft.azure.shortcuts.common.SupportsListingAsIterator;
 import com.microsoft.azure.shortcuts.common.SupportsListingAsMap;
 import com.microsoft.azure.shortcuts.common.SupportsGetting;
+import com.microsoft.azure.shortcuts.resources.common.SupportsListingAsIteratorByGroup;
 import com.microsoft.azure.shortcuts.resources.common.SupportsListingAsMapByGroup;
 
 public interface Resources extends
 	SupportsListingAsMap<Resource>,
+	SupportsListingAsIterator<Resource>,
 	SupportsListingAsMapByGroup<Resource>,
+	SupportsListingAsIteratorByGroup<Resource>,
 	SupportsGetting<Resource>,
 	SupportsDeleting {
 
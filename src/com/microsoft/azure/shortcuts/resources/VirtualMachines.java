@@ -1,18 +1,37 @@
 package com.microsoft.azure.shortcuts.resources;
 
+import java.util.List;
+import java.util.concurrent.Future;
+
 import com.microsoft.azure.shortcuts.common.SupportsCreating;
 import com.microsoft.azure.shortcuts.common.SupportsDeleting;
 import com.microsoft.azure.shortcuts.common.SupportsGetting;
+import com.microsoft.azure.shortcuts.common.SupportsListingAsIterator;
 import com.microsoft.azure.shortcuts.common.SupportsListingAsMap;
 import com.microsoft.azure.shortcuts.resources.common.SupportsDeletingByGroup;
 import com.microsoft.azure.shortcuts.resources.common.SupportsGettingByGroup;
+import com.microsoft.azure.shortcuts.resources.common.SupportsListingAsIteratorByGroup;
 import com.microsoft.azure.shortcuts.resources.common.SupportsListingAsMapByGroup;
+import com.microsoft.azure.shortcuts.resources.common.SupportsRefreshingAll;
 
 public interface VirtualMachines extends
 	SupportsListingAsMap<VirtualMachine>,
+	SupportsListingAsIterator<VirtualMachine>,
 	SupportsListingAsMapByGroup<VirtualMachine>,
+	SupportsListingAsIteratorByGroup<VirtualMachine>,
+	SupportsRefreshingAll<VirtualMachine>,
 	SupportsGetting<VirtualMachine>,
 	SupportsGettingByGroup<VirtualMachine>,
 	SupportsCreating<VirtualMachine.DefinitionBlank>, 
 	SupportsDeleting,
-	SupportsDeletingByGroup {}
+	SupportsDeletingByGroup {
+	
+	/**
+	 * Provisions a batch of virtual machine definitions, ensuring the resource groups, networks, storage accounts and availability sets
+	 * they refer to by the same name in the same resource group only once for the whole batch
+	 * @param definitions The virtual machine definitions to provision, which must have been created by define()
+	 * @param maxConcurrency The maximum number of virtual machines to provision at the same time
+	 * @return The outcome of each definition, in the same order, as a future returning the provisioned virtual machine or throwing the cause of its failure
+	 */
+	List<Future<VirtualMachine>> provisionBatch(List<? extends VirtualMachine.DefinitionProvisionable> definitions, int maxConcurrency);
+}
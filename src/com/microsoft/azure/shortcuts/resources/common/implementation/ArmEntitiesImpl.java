@@ -19,6 +19,8 @@
 */
 package com.microsoft.azure.shortcuts.resources.common.implementation;
 
+import java.util.concurrent.Executor;
+
 import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
 import com.microsoft.azure.shortcuts.resources.implementation.Subscription;
 
@@ -27,4 +29,9 @@ public abstract class ArmEntitiesImpl extends EntitiesImpl<Subscription> {
 	protected ArmEntitiesImpl(Subscription azure) {
 		super(azure);
 	}
+	
+	@Override
+	public Executor executor() {
+		return this.azure.executor();
+	}
 }
\ No newline at end of file
@@ -24,7 +24,6 @@ import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
 import com.microsoft.azure.shortcuts.resources.ResourceGroup;
 import com.microsoft.azure.shortcuts.resources.common.GroupResourceBase;
 import com.microsoft.azure.shortcuts.resources.implementation.Subscription;
-import com.microsoft.azure.shortcuts.resources.implementation.ResourcesImpl;
 
 
 public abstract class GroupableResourceBaseImpl<
@@ -49,7 +48,8 @@ public abstract class GroupableResourceBaseImpl<
 	
 	@Override 
 	final public String resourceGroup() {
-		String groupNameTemp = ResourcesImpl.groupFromResourceId(this.id());
+		ResourceId resourceId = this.resourceId();
+		String groupNameTemp = (resourceId == null) ? null : resourceId.resourceGroup();
 		return (groupNameTemp == null) ? this.groupName : groupNameTemp;
 	}
 	
@@ -58,12 +58,16 @@ public abstract class GroupableResourceBaseImpl<
 	 * Helpers
 	 * @throws Exception 
 	 **************************************************/
+	
+	// Returns the name of the resource group, including that of the new group named after the resource when none was specified
+	final protected String groupNameOrDefault() {
+		return (this.groupName != null) ? this.groupName : this.name() + "group";
+	}
+	
 	final protected ResourceGroup ensureGroup() throws Exception {
 		ResourceGroup group;
 		if(!this.isExistingGroup) {
-			if(this.groupName == null) {
-				this.groupName = this.name() + "group";
-			}
+			this.groupName = this.groupNameOrDefault();
 			
 			group = this.collection.azure().resourceGroups().define(this.groupName)
 				.withRegion(this.region())
@@ -19,53 +19,294 @@
 */
 package com.microsoft.azure.shortcuts.resources.common.implementation;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
+import com.microsoft.azure.shortcuts.common.implementation.Async;
+import com.microsoft.azure.shortcuts.common.implementation.DeepCopy;
+import com.microsoft.azure.shortcuts.common.implementation.EntityCache;
+import com.microsoft.azure.shortcuts.common.implementation.LazyWrapperMap;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator.Page;
+import com.microsoft.azure.shortcuts.common.implementation.Poller;
+import com.microsoft.azure.shortcuts.common.implementation.SingleFlight;
 import com.microsoft.azure.shortcuts.resources.implementation.Subscription;
-import com.microsoft.azure.shortcuts.resources.implementation.ResourcesImpl;
 import com.microsoft.windowsazure.core.ResourceBaseExtended;
 
 public abstract class GroupableResourcesBaseImpl<WRAPPER, 
 		INNER extends ResourceBaseExtended,
 		WRAPPERIMPL extends WRAPPER> extends ArmEntitiesImpl {
-	protected GroupableResourcesBaseImpl(Subscription azure) {
+	// The cache shared by the collections of the subscription, and the name distinguishing the entries of this collection in it
+	private final EntityCache cache;
+	private final String cacheName;
+	
+	// Concurrent gets of the same entity share a single read from Azure
+	private final SingleFlight<String, INNER> reads = new SingleFlight<>();
+	
+	// Refreshes the entities being waited on at the same time together
+	private final Poller.Refresher<WRAPPER> refresher = new Poller.Refresher<WRAPPER>() {
+		@Override
+		public void refresh(List<WRAPPER> entities) throws Exception {
+			refreshAll(entities);
+		}
+	};
+	
+	protected GroupableResourcesBaseImpl(Subscription azure, EntityCache cache) {
 		super(azure);
+		this.cache = cache;
+		this.cacheName = this.getClass().getSimpleName().toLowerCase();
 	}
 	
 	protected abstract List<INNER> getNativeEntities(String group) throws Exception;
 	protected abstract INNER getNativeEntity(String group, String name) throws Exception;
+	protected abstract void deleteNativeEntity(String group, String name) throws Exception;
 	protected abstract WRAPPERIMPL wrap(INNER nativeItem);
 	
-	public abstract void delete(String groupName, String name) throws Exception;
+	// Returns a page of native entities, the first one if the link is null. Collections Azure lists in pages override this,
+	// while the others list all the entities at once
+	protected Page<INNER> getNativePage(String groupName, String nextLink) throws Exception {
+		return new Page<>(getNativeEntities(groupName), null);
+	}
 	
 	public final Map<String, WRAPPER> asMap(String groupName) throws Exception {
-		HashMap<String, WRAPPER> wrappers = new HashMap<>();
-		for(INNER nativeItem : getNativeEntities(groupName)) {
-			wrappers.put(nativeItem.getId(), wrap(nativeItem));
+		@SuppressWarnings("unchecked")
+		HashMap<String, INNER> nativeItems = (HashMap<String, INNER>) this.cache.get(this.cacheKey(groupName, null));
+		if(nativeItems == null) {
+			nativeItems = this.listNativeEntities(groupName);
 		}
-		return Collections.unmodifiableMap(wrappers);
+		
+		// Wrap lazily, as large listings are often only used for their ids
+		return new LazyWrapperMap<WRAPPER, INNER>(nativeItems) {
+			@Override
+			protected WRAPPER wrap(INNER nativeItem) {
+				return GroupableResourcesBaseImpl.this.wrap(copyOf(nativeItem));
+			}
+		};
+	}
+	
+	// Lists all the pages of native entities by id, caching the listing along with its entities so that getting any of them next does not go to Azure
+	private HashMap<String, INNER> listNativeEntities(String groupName) throws Exception {
+		HashMap<String, INNER> nativeItems = new HashMap<>();
+		String nextLink = null;
+		do {
+			Page<INNER> page = getNativePage(groupName, nextLink);
+			for(INNER nativeItem : page.items()) {
+				nativeItems.put(nativeItem.getId(), nativeItem);
+			}
+			nextLink = page.nextLink();
+		} while(nextLink != null && !nextLink.isEmpty());
+		
+		if(this.cache.isEnabled()) {
+			this.cache.put(this.cacheKey(groupName, null), nativeItems);
+			for(INNER nativeItem : nativeItems.values()) {
+				ResourceId resourceId = ResourceId.parse(nativeItem.getId());
+				this.cache.put(this.cacheKey(resourceId.resourceGroup(), resourceId.name()), nativeItem);
+			}
+		}
+		
+		return nativeItems;
 	}
 	
 	public final Map<String, WRAPPER> asMap() throws Exception {
 		return asMap(null);
 	}
 	
-	public final WRAPPER get(String groupName, String name) throws Exception {
-		return wrap(getNativeEntity(groupName, name));
+	public final Iterator<WRAPPER> asIterator(final String groupName) throws Exception {
+		return new PagedIterator<INNER, WRAPPER>(getNativePage(groupName, null)) {
+			@Override
+			protected Page<INNER> nextPage(String nextLink) throws Exception {
+				return getNativePage(groupName, nextLink);
+			}
+
+			@Override
+			protected WRAPPER wrap(INNER nativeItem) {
+				return GroupableResourcesBaseImpl.this.wrap(nativeItem);
+			}
+		};
+	}
+	
+	public final Iterator<WRAPPER> asIterator() throws Exception {
+		return asIterator(null);
+	}
+	
+	public final WRAPPER get(final String groupName, final String name) throws Exception {
+		final String key = this.cacheKey(groupName, name);
+		@SuppressWarnings("unchecked")
+		INNER nativeItem = (INNER) this.cache.get(key);
+		if(nativeItem == null) {
+			nativeItem = this.reads.get(key, new Callable<INNER>() {
+				@Override
+				public INNER call() throws Exception {
+					INNER nativeItem = getNativeEntity(groupName, name);
+					cache.put(key, nativeItem);
+					return nativeItem;
+				}
+			});
+		}
+		
+		// Whether cached or read on behalf of concurrent gets too, the entity may be shared, and the caller reading it cannot tell 
+		// whether others joined its read until they already hold it. So each caller wraps its own copy, which costs little next to the read
+		return wrap(DeepCopy.of(nativeItem));
+	}
+	
+	// Reads the entity from Azure after it was changed, replacing its cached copy and dropping the listings that may no longer be accurate.
+	// The read is not shared with the gets in flight, since they may have started before the change
+	protected final WRAPPER reload(String groupName, String name) throws Exception {
+		this.invalidate(groupName, name);
+		INNER nativeItem = getNativeEntity(groupName, name);
+		this.cache.put(this.cacheKey(groupName, name), nativeItem);
+		return wrap(copyOf(nativeItem));
 	}
 	
 	public final WRAPPER get(String id) throws Exception {
+		ResourceId resourceId = ResourceId.parse(id);
 		return get(
-			ResourcesImpl.groupFromResourceId(id), 
-			ResourcesImpl.nameFromResourceId(id));
+			resourceId.resourceGroup(), 
+			resourceId.name());
+	}
+	
+	public final Future<WRAPPER> getAsync(final String id) {
+		return Async.submit(this.executor(), new Callable<WRAPPER>() {
+			@Override
+			public WRAPPER call() throws Exception {
+				return get(id);
+			}
+		});
+	}
+	
+	// Refreshes the entities of each resource group holding at least this many of them by listing the group, rather than one by one
+	public static final int BULK_REFRESH_THRESHOLD = 10;
+	
+	public final void refreshAll(Collection<? extends WRAPPER> entities) throws Exception {
+		// Sort the entities by resource group
+		final HashMap<String, List<ResourceBaseImpl<?, INNER, ?>>> groups = new HashMap<>();
+		for(WRAPPER entity : entities) {
+			if(!(entity instanceof ResourceBaseImpl) || ((ResourceBaseImpl<?, ?, ?>) entity).collection != this) {
+				throw new IllegalArgumentException("Only the entities of this collection can be refreshed by it");
+			}
+			
+			@SuppressWarnings("unchecked")
+			ResourceBaseImpl<?, INNER, ?> entityImpl = (ResourceBaseImpl<?, INNER, ?>) entity;
+			ResourceId resourceId = entityImpl.resourceId();
+			String groupName = (resourceId != null) ? resourceId.resourceGroup() : null;
+			if(groupName == null) {
+				throw new IllegalArgumentException("Only the entities with the id of a resource group member can be refreshed: " + entityImpl.id());
+			}
+			
+			List<ResourceBaseImpl<?, INNER, ?>> groupEntities = groups.get(groupName.toLowerCase());
+			if(groupEntities == null) {
+				groupEntities = new ArrayList<>();
+				groups.put(groupName.toLowerCase(), groupEntities);
+			}
+			groupEntities.add(entityImpl);
+		}
+		
+		// List the groups holding enough entities and read the others individually, all concurrently. The calling thread takes part, 
+		// as it may itself be a thread of the executor, such as when the poller refreshes the entities waited on
+		final ArrayList<Callable<Void>> refreshes = new ArrayList<>();
+		for(final List<ResourceBaseImpl<?, INNER, ?>> groupEntities : groups.values()) {
+			if(groupEntities.size() >= BULK_REFRESH_THRESHOLD) {
+				refreshes.add(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						refreshGroup(groupEntities);
+						return null;
+					}
+				});
+			} else {
+				for(final ResourceBaseImpl<?, INNER, ?> entity : groupEntities) {
+					refreshes.add(new Callable<Void>() {
+						@Override
+						public Void call() throws Exception {
+							refreshEntity(entity);
+							return null;
+						}
+					});
+				}
+			}
+		}
+		
+		// Wait for all the refreshes before reporting the first failure
+		Async.runAll(this.executor(), refreshes);
+	}
+	
+	Poller.Refresher<WRAPPER> refresher() {
+		return this.refresher;
+	}
+	
+	// Refreshes the entities of a resource group from a single listing of the group
+	private void refreshGroup(List<ResourceBaseImpl<?, INNER, ?>> groupEntities) throws Exception {
+		final HashMap<String, INNER> nativeItems = new HashMap<>();
+		for(INNER nativeItem : this.listNativeEntities(groupEntities.get(0).resourceId().resourceGroup()).values()) {
+			nativeItems.put(nativeItem.getId().toLowerCase(), nativeItem);
+		}
+		
+		for(ResourceBaseImpl<?, INNER, ?> entity : groupEntities) {
+			INNER nativeItem = nativeItems.get(entity.id().toLowerCase());
+			if(nativeItem != null) {
+				entity.refreshFrom(copyOf(nativeItem));
+			} else {
+				// Not listed, so presumably deleted meanwhile: let the individual read fail as a refresh would
+				this.refreshEntity(entity);
+			}
+		}
+	}
+	
+	// Refreshes an entity with an individual read from Azure, replacing its cached copy so that the gets that follow are not staler than it.
+	// The entities refresh themselves with it too
+	protected final void refreshEntity(ResourceBaseImpl<?, INNER, ?> entity) throws Exception {
+		ResourceId resourceId = entity.resourceId();
+		INNER nativeItem = getNativeEntity(resourceId.resourceGroup(), resourceId.name());
+		this.cache.put(this.cacheKey(resourceId.resourceGroup(), resourceId.name()), nativeItem);
+		entity.refreshFrom(copyOf(nativeItem));
+	}
+	
+	public final void delete(String groupName, String name) throws Exception {
+		try {
+			deleteNativeEntity(groupName, name);
+		} finally {
+			this.invalidate(groupName, name);
+		}
 	}
 	
 	public final void delete(String id) throws Exception {
+		ResourceId resourceId = ResourceId.parse(id);
 		this.delete(
-			ResourcesImpl.groupFromResourceId(id), 
-			ResourcesImpl.nameFromResourceId(id));
+			resourceId.resourceGroup(), 
+			resourceId.name());
+	}
+	
+	
+	/***********************************************************
+	 * Cache helpers
+	 ***********************************************************/
+	
+	// Returns the prefix of the cache keys of the entities of a resource group, or of the subscription-wide listings if the group is null
+	public static String cacheKeyPrefix(String groupName) {
+		return (groupName == null) ? "|" : groupName.toLowerCase() + "|";
+	}
+	
+	// Returns a copy of a native entity that may be cached, so that the changes a wrapper makes to its own never reach the cache 
+	// or the other wrappers of the entity. Without caching, the entities read other than by get are never shared and need no copy
+	private INNER copyOf(INNER nativeItem) {
+		return this.cache.isEnabled() ? DeepCopy.of(nativeItem) : nativeItem;
+	}
+	
+	// Returns the cache key of an entity, or of a listing if the name is null
+	private String cacheKey(String groupName, String name) {
+		return cacheKeyPrefix(groupName) + this.cacheName + "|" + ((name == null) ? "" : name.toLowerCase());
+	}
+	
+	// Drops the cached copy of the entity along with the listings that include it
+	private void invalidate(String groupName, String name) {
+		this.cache.invalidate(this.cacheKey(groupName, name));
+		this.cache.invalidate(this.cacheKey(groupName, null));
+		this.cache.invalidate(this.cacheKey(null, null));
 	}
 }
@@ -36,7 +36,7 @@ public abstract class NetworkableGroupableResourceBaseImpl<
 	}
 	
 	private boolean isNetworkExisting;
-	private String networkId;
+	protected String networkId;
 	private String networkCidr;
 	private String subnetId;
 	protected String privateIpAddress;
@@ -22,9 +22,14 @@ package com.microsoft.azure.shortcuts.resources.common.implementation;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
+import com.microsoft.azure.shortcuts.common.Deletable;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableRefreshableWrapperImpl;
+import com.microsoft.azure.shortcuts.common.implementation.Poller;
 import com.microsoft.azure.shortcuts.resources.Region;
 import com.microsoft.azure.shortcuts.resources.common.ResourceBase;
 import com.microsoft.azure.shortcuts.resources.implementation.Subscription;
@@ -37,9 +42,11 @@ public abstract class ResourceBaseImpl<
 	extends 
 		IndexableRefreshableWrapperImpl<WRAPPER, INNER>
 	implements 
-		ResourceBase {
+		ResourceBase,
+		Deletable {
 
 	protected final EntitiesImpl<Subscription> collection;
+	private ResourceId resourceId;
 	
 	protected ResourceBaseImpl(String id, INNER innerObject, EntitiesImpl<Subscription> collection) {
 		super(id, innerObject);
@@ -64,6 +71,45 @@ public abstract class ResourceBaseImpl<
 	public String id() {
 		return this.inner().getId();
 	}
+	
+	// Returns the parsed resource id, parsing it again only if the inner object's id has changed since. The parsed id keeps the string 
+	// it was parsed from, which is compared by value since a refreshed inner object brings an equal but distinct id string
+	protected final ResourceId resourceId() {
+		final String id = this.id();
+		ResourceId resourceId = this.resourceId;
+		if(id == null) {
+			return null;
+		} else if(resourceId == null || !id.equals(resourceId.toString())) {
+			this.resourceId = resourceId = ResourceId.parse(id);
+		}
+		return resourceId;
+	}
+
+	// Replaces the inner object with a fresher copy read by the collection on behalf of many entities at once
+	final void refreshFrom(INNER innerObject) {
+		this.setInner(innerObject);
+	}
+	
+	// Groupable resources waited on at the same time are refreshed together by their collection
+	@SuppressWarnings("unchecked")
+	@Override
+	protected Poller.Refresher<WRAPPER> refresher() {
+		if(this.collection instanceof GroupableResourcesBaseImpl) {
+			return ((GroupableResourcesBaseImpl<WRAPPER, ?, ?>) this.collection).refresher();
+		} else {
+			return super.refresher();
+		}
+	}
+	
+	@Override
+	protected Executor executor() {
+		return this.collection.executor();
+	}
+	
+	@Override
+	public Future<Void> deleteAsync() {
+		return Async.delete(this.executor(), this);
+	}
 
 	@Override
 	public String type() {
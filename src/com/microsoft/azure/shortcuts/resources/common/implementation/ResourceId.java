@@ -0,0 +1,244 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.resources.common.implementation;
+
+// Immutable parsed view over an ARM resource id, remembering only the offsets of the interesting segments and slicing them out on demand
+// Assumes this format: /subscriptions/{subscriptionId}/resourceGroups/{resourceGroupName}/providers/{resourceProviderNamespace}/{resourceType}/{resourceName}
+public final class ResourceId {
+	// Indexes to the parts in the resource id
+	private static final int SUBSCRIPTION = 2;
+	private static final int GROUP = 4;
+	private static final int PROVIDER = 6;
+	private static final int TYPE = 7;
+	private static final int NAME = 8;
+	private static final int SEGMENTS = NAME + 1;
+	
+	private final String id;
+	
+	// Start and end offsets of each of the segments up to the name, or -1 if missing
+	private final int[] starts = new int[SEGMENTS];
+	private final int[] ends = new int[SEGMENTS];
+	
+	// Lazily sliced segments
+	private String subscriptionId, group, provider, type, name;
+	private int hash;
+	
+	private ResourceId(String id) {
+		this.id = id;
+		
+		int segment = 0, start = 0;
+		final int length = id.length();
+		for(int i = 0; i <= length && segment < SEGMENTS; i++) {
+			if(i == length || id.charAt(i) == '/') {
+				this.starts[segment] = start;
+				this.ends[segment] = i;
+				segment++;
+				start = i + 1;
+			}
+		}
+		
+		// Mark the segments not present in the id
+		for(; segment < SEGMENTS; segment++) {
+			this.starts[segment] = -1;
+			this.ends[segment] = -1;
+		}
+		
+		// A plain name without any slashes is treated as the name of the resource
+		if(isPlainName(id, this.starts[1])) {
+			this.name = id.substring(0, this.ends[0]);
+		}
+	}
+	
+	
+	/**
+	 * Parses the provided resource id
+	 * @param id A resource id, or the plain name of a resource
+	 * @return The parsed resource id, or null if the id is null
+	 */
+	public static ResourceId parse(String id) {
+		return (id == null) ? null : new ResourceId(id);
+	}
+	
+	
+	/**
+	 * Returns a single segment of a resource id without parsing the rest of it
+	 * @param id A resource id
+	 * @param index The index of the segment, counting the empty segment before the leading slash
+	 * @return The segment, or null if the id does not have that many segments
+	 */
+	private static String segment(String id, int index) {
+		if(id == null) {
+			return null;
+		}
+		
+		final int firstSlash = id.indexOf('/');
+		if(isPlainName(id, firstSlash + 1)) {
+			// Plain names are treated as the name of the resource
+			return (index == NAME) ? ((firstSlash < 0) ? id : id.substring(0, firstSlash)) : null;
+		}
+		
+		int start = 0;
+		for(int i = 0; i < index; i++) {
+			start = id.indexOf('/', start) + 1;
+			if(start == 0) {
+				return null;
+			}
+		}
+		
+		if(isTrailing(id, start)) {
+			return null;
+		}
+		
+		final int end = id.indexOf('/', start);
+		return (end < 0) ? id.substring(start) : id.substring(start, end);
+	}
+	
+	
+	/**
+	 * @return The resource group name from the resource id, without parsing the rest of it
+	 */
+	public static String groupFromResourceId(String id) {
+		return segment(id, GROUP);
+	}
+	
+	
+	/**
+	 * @return The resource name from the resource id, without parsing the rest of it
+	 */
+	public static String nameFromResourceId(String id) {
+		return segment(id, NAME);
+	}
+	
+	
+	/***********************************************************
+	 * Getters
+	 ***********************************************************/
+	
+	public String subscriptionId() {
+		if(this.subscriptionId == null) {
+			this.subscriptionId = slice(SUBSCRIPTION);
+		}
+		return this.subscriptionId;
+	}
+	
+	public String resourceGroup() {
+		if(this.group == null) {
+			this.group = slice(GROUP);
+		}
+		return this.group;
+	}
+	
+	public String provider() {
+		if(this.provider == null) {
+			this.provider = slice(PROVIDER);
+		}
+		return this.provider;
+	}
+	
+	public String type() {
+		if(this.type == null) {
+			this.type = slice(TYPE);
+		}
+		return this.type;
+	}
+	
+	public String name() {
+		if(this.name == null) {
+			this.name = slice(NAME);
+		}
+		return this.name;
+	}
+	
+	
+	/**
+	 * Returns a new id based on this one, with the resource group set as specified
+	 * @param groupName The new resource group name
+	 * @return The new id, or null if this id does not contain a resource group
+	 */
+	public String withResourceGroup(String groupName) {
+		if(this.starts[GROUP] < 0) {
+			return null;
+		}
+		
+		return new StringBuilder(this.id.length() - (this.ends[GROUP] - this.starts[GROUP]) + groupName.length())
+			.append(this.id, 0, this.starts[GROUP])
+			.append(groupName)
+			.append(this.id, this.ends[GROUP], this.id.length())
+			.toString();
+	}
+	
+	
+	@Override
+	public boolean equals(Object other) {
+		if(this == other) {
+			return true;
+		} else if(other instanceof ResourceId) {
+			return this.id.equals(((ResourceId)other).id);
+		} else {
+			return false;
+		}
+	}
+	
+	@Override
+	public int hashCode() {
+		int h = this.hash;
+		if(h == 0) {
+			this.hash = h = this.id.hashCode();
+		}
+		return h;
+	}
+	
+	@Override
+	public String toString() {
+		return this.id;
+	}
+	
+	
+	/***********************************************************
+	 * Helpers
+	 ***********************************************************/
+	
+	// Returns the requested segment, keeping the same semantics as String.split("/") which drops trailing empty segments
+	private String slice(int segment) {
+		final int start = this.starts[segment];
+		if(start < 0 || isTrailing(this.id, start)) {
+			return null;
+		}
+		
+		return this.id.substring(start, this.ends[segment]);
+	}
+	
+	
+	// Returns true if the id consists of a single non-empty segment, optionally followed by slashes
+	private static boolean isPlainName(String id, int secondSegmentStart) {
+		return (secondSegmentStart <= 0 || isTrailing(id, secondSegmentStart)) && id.length() > 0 && id.charAt(0) != '/';
+	}
+	
+	
+	// Returns true if nothing but slashes follows the offset, i.e. the segment starting there is a trailing empty one
+	private static boolean isTrailing(String id, int offset) {
+		for(int i = offset; i < id.length(); i++) {
+			if(id.charAt(i) != '/') {
+				return false;
+			}
+		}
+		return true;
+	}
+}
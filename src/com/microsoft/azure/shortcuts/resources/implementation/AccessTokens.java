@@ -0,0 +1,199 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.resources.implementation;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.aad.adal4j.AuthenticationResult;
+import com.microsoft.azure.utility.AuthHelper;
+import com.microsoft.windowsazure.core.pipeline.filter.ServiceRequestContext;
+import com.microsoft.windowsazure.core.pipeline.filter.ServiceRequestFilter;
+
+// Access tokens of service principals, cached per tenant, client, secret and resource and shared by all the subscriptions of the JVM.
+// Each token is refreshed in the background shortly before it expires, so that long lived subscriptions keep working, as long as
+// it was used since the last refresh. Idle tokens are dropped instead, so that the subscriptions long gone do not keep them refreshed
+class AccessTokens {
+	static final long REFRESH_MARGIN = TimeUnit.MINUTES.toMillis(5);
+	static final long RETRY_DELAY = TimeUnit.SECONDS.toMillis(30);
+	
+	private static final ConcurrentHashMap<String, Token> TOKENS = new ConcurrentHashMap<>();
+	private static final ScheduledExecutorService REFRESHER = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "azure-shortcuts-token-refresher");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	private AccessTokens() {
+	}
+	
+	
+	// Returns the token of the service principal for the resource, acquiring it only if no subscription of the JVM did already
+	static Token get(String resource, String authUrl, String tenantId, String clientId, String clientKey) throws Exception {
+		// The secret is part of the key, so that subscriptions with other credentials for the same client never get the token of another
+		final String key = String.format("%s|%s|%s|%s", authUrl, tenantId, clientId, resource).toLowerCase() + "|" + digest(clientKey);
+		Token token = TOKENS.get(key);
+		if(token == null) {
+			Token newToken = new Token(key, resource, authUrl, tenantId, clientId, clientKey);
+			token = TOKENS.putIfAbsent(key, newToken);
+			if(token == null) {
+				token = newToken;
+			}
+		}
+		
+		try {
+			token.accessToken();
+		} catch(Exception e) {
+			// Do not keep a token that could never be acquired, so that the next attempt starts afresh
+			if(token.result == null) {
+				TOKENS.remove(key, token);
+			}
+			throw e;
+		}
+		return token;
+	}
+	
+	
+	// Returns the hex encoded SHA-256 digest of the secret, keeping the secret itself out of the cache keys
+	private static String digest(String secret) throws Exception {
+		if(secret == null) {
+			return "";
+		}
+		
+		byte[] hash = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+		return String.format("%064x", new BigInteger(1, hash));
+	}
+	
+	
+	// A token that keeps itself current, and the request filter authenticating the requests of the SDK clients with it
+	static class Token implements ServiceRequestFilter {
+		private final String key;
+		private final String resource;
+		private final String authUrl;
+		private final String tenantId;
+		private final String clientId;
+		private final String clientKey;
+		private volatile AuthenticationResult result;
+		
+		// Whether the token was used since it was last refreshed
+		private volatile boolean used;
+		
+		private Token(String key, String resource, String authUrl, String tenantId, String clientId, String clientKey) {
+			this.key = key;
+			this.resource = resource;
+			this.authUrl = authUrl;
+			this.tenantId = tenantId;
+			this.clientId = clientId;
+			this.clientKey = clientKey;
+		}
+		
+		// Returns the current access token, acquiring a new one first if it expired because the background refresh failed
+		String accessToken() throws Exception {
+			this.used = true;
+			return this.ensure().getAccessToken();
+		}
+		
+		@Override
+		public void filter(ServiceRequestContext request) {
+			try {
+				request.setHeader("Authorization", "Bearer " + this.accessToken());
+			} catch(Exception e) {
+				throw new RuntimeException("Failed to acquire an access token", e);
+			}
+		}
+		
+		
+		// Returns a valid authentication result, acquiring one if there is none yet or it has expired
+		private AuthenticationResult ensure() throws Exception {
+			AuthenticationResult current = this.result;
+			if(current != null && !isExpired(current, 0)) {
+				return current;
+			}
+			
+			synchronized(this) {
+				current = this.result;
+				if(current == null || isExpired(current, 0)) {
+					current = this.acquire();
+				}
+				return current;
+			}
+		}
+		
+		// Acquires a new token from Active Directory and schedules its refresh ahead of its expiry
+		private synchronized AuthenticationResult acquire() throws Exception {
+			AuthenticationResult acquired = AuthHelper.getAccessTokenFromServicePrincipalCredentials(
+				this.resource, 
+				this.authUrl, 
+				this.tenantId, 
+				this.clientId, 
+				this.clientKey);
+			this.result = acquired;
+			
+			// Share the token again if it was dropped while idle
+			TOKENS.putIfAbsent(this.key, this);
+			
+			Date expiresOn = acquired.getExpiresOnDate();
+			if(expiresOn != null) {
+				this.scheduleRefresh(Math.max(expiresOn.getTime() - System.currentTimeMillis() - REFRESH_MARGIN, 0));
+			}
+			return acquired;
+		}
+		
+		private void scheduleRefresh(long delay) {
+			REFRESHER.schedule(new Runnable() {
+				@Override
+				public void run() {
+					if(!used) {
+						// Not used since the last refresh, so stop refreshing it. Should it be used again once expired, it is acquired anew
+						TOKENS.remove(key, Token.this);
+						return;
+					}
+					
+					used = false;
+					try {
+						acquire();
+					} catch(Exception e) {
+						// Keep the current token while it lasts, and try again shortly, the failed refresh not making it idle
+						used = true;
+						if(!isExpired(result, RETRY_DELAY)) {
+							scheduleRefresh(RETRY_DELAY);
+						}
+					}
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		}
+		
+		// Whether the token expires within the margin
+		private static boolean isExpired(AuthenticationResult result, long margin) {
+			Date expiresOn = (result != null) ? result.getExpiresOnDate() : null;
+			return expiresOn != null && expiresOn.getTime() - margin <= System.currentTimeMillis();
+		}
+	}
+}
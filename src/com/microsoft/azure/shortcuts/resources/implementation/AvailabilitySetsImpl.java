@@ -22,8 +22,10 @@ package com.microsoft.azure.shortcuts.resources.implementation;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import com.microsoft.azure.management.compute.models.VirtualMachineReference;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
 import com.microsoft.azure.shortcuts.resources.AvailabilitySet;
 import com.microsoft.azure.shortcuts.resources.AvailabilitySets;
@@ -39,11 +41,11 @@ public class AvailabilitySetsImpl
 	implements AvailabilitySets {
 	
 	AvailabilitySetsImpl(Subscription subscription) {
-		super(subscription);
+		super(subscription, subscription.cache());
 	}
 	
 	@Override
-	public void delete(String groupName, String name) throws Exception {
+	protected void deleteNativeEntity(String groupName, String name) throws Exception {
 		azure.computeManagementClient().getAvailabilitySetsOperations().delete(groupName, name);
 	}
 	
@@ -127,9 +129,7 @@ public class AvailabilitySetsImpl
 
 		@Override
 		public AvailabilitySetImpl refresh() throws Exception {
-			this.setInner(getNativeEntity(
-				ResourcesImpl.groupFromResourceId(this.id()), 
-				ResourcesImpl.nameFromResourceId(this.id())));
+			refreshEntity(this);
 			return this;
 		}
 
@@ -138,7 +138,12 @@ public class AvailabilitySetsImpl
 		public AvailabilitySet provision() throws Exception {
 			ensureGroup(); // Create group if needed
 			this.collection.azure().computeManagementClient().getAvailabilitySetsOperations().createOrUpdate(this.groupName, this.inner());
-			return get(this.groupName, this.name());
+			return reload(this.groupName, this.name());
+		}
+		
+		@Override
+		public Future<AvailabilitySet> provisionAsync() {
+			return Async.provision(this.executor(), this);
 		}
 	}
 }
@@ -20,9 +20,11 @@
 package com.microsoft.azure.shortcuts.resources.implementation;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 import com.microsoft.azure.management.network.models.FrontendIpConfiguration;
 import com.microsoft.azure.management.network.models.ResourceId;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
 import com.microsoft.azure.shortcuts.resources.LoadBalancer;
 import com.microsoft.azure.shortcuts.resources.LoadBalancers;
@@ -38,7 +40,7 @@ public class LoadBalancersImpl
 	implements LoadBalancers {
 	
 	LoadBalancersImpl(Subscription subscription) {
-		super(subscription);
+		super(subscription, subscription.cache());
 	}
 	
 	@Override
@@ -50,7 +52,7 @@ public class LoadBalancersImpl
 	}
 
 	@Override
-	public void delete(String groupName, String name) throws Exception {
+	protected void deleteNativeEntity(String groupName, String name) throws Exception {
 		azure.networkManagementClient().getLoadBalancersOperations().delete(groupName, name);
 	}
 
@@ -133,14 +135,17 @@ public class LoadBalancersImpl
 			ipConfig.setName(this.name());
 			
 			this.collection.azure().networkManagementClient().getLoadBalancersOperations().createOrUpdate(this.groupName, this.name(), this.inner());
-			return get(this.groupName, this.name());
+			return reload(this.groupName, this.name());
+		}
+		
+		@Override
+		public Future<LoadBalancer> provisionAsync() {
+			return Async.provision(this.executor(), this);
 		}
 		
 		@Override
 		public LoadBalancerImpl refresh() throws Exception {
-			this.setInner(getNativeEntity(
-					ResourcesImpl.groupFromResourceId(this.id()), 
-					ResourcesImpl.nameFromResourceId(this.id())));
+			refreshEntity(this);
 			return this;
 		}
 	}
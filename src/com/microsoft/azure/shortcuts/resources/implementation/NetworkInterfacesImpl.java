@@ -24,10 +24,12 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Future;
 
 import com.microsoft.azure.management.network.models.IpAllocationMethod;
 import com.microsoft.azure.management.network.models.NetworkInterfaceIpConfiguration;
 import com.microsoft.azure.management.network.models.ResourceId;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
 import com.microsoft.azure.shortcuts.resources.Network;
 import com.microsoft.azure.shortcuts.resources.NetworkInterface;
@@ -45,7 +47,7 @@ public class NetworkInterfacesImpl
 	implements NetworkInterfaces {
 		
 	NetworkInterfacesImpl(Subscription subscription) {
-		super(subscription);
+		super(subscription, subscription.cache());
 	}
 	
 	@Override
@@ -62,7 +64,7 @@ public class NetworkInterfacesImpl
 	}
 
 	@Override
-	public void delete(String groupName, String name) throws Exception {
+	protected void deleteNativeEntity(String groupName, String name) throws Exception {
 		azure.networkManagementClient().getNetworkInterfacesOperations().delete(groupName, name);
 	}
 
@@ -192,14 +194,17 @@ public class NetworkInterfacesImpl
 			}
 			
 			azure.networkManagementClient().getNetworkInterfacesOperations().createOrUpdate(this.groupName, this.name(), this.inner());
-			return get(this.groupName, this.name());
+			return reload(this.groupName, this.name());
+		}
+		
+		@Override
+		public Future<NetworkInterface> provisionAsync() {
+			return Async.provision(this.executor(), this);
 		}
 		
 		@Override
 		public NetworkInterfaceImpl refresh() throws Exception {
-			this.setInner(getNativeEntity(
-				ResourcesImpl.groupFromResourceId(this.id()), 
-				ResourcesImpl.nameFromResourceId(this.id())));
+			refreshEntity(this);
 			return this;
 		}
 	}
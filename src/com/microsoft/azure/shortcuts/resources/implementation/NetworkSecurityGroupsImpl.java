@@ -21,10 +21,12 @@ package com.microsoft.azure.shortcuts.resources.implementation;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import com.microsoft.azure.management.network.models.SecurityRule;
 import com.microsoft.azure.management.network.models.SecurityRuleAccess;
 import com.microsoft.azure.management.network.models.SecurityRuleDirection;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
 import com.microsoft.azure.shortcuts.resources.NetworkSecurityGroup;
 import com.microsoft.azure.shortcuts.resources.NetworkSecurityGroups;
@@ -41,7 +43,7 @@ public class NetworkSecurityGroupsImpl
 	implements NetworkSecurityGroups {
 		
 	NetworkSecurityGroupsImpl(Subscription subscription) {
-		super(subscription);
+		super(subscription, subscription.cache());
 	}
 	
 	@Override
@@ -54,7 +56,7 @@ public class NetworkSecurityGroupsImpl
 	}
 
 	@Override
-	public void delete(String groupName, String name) throws Exception {
+	protected void deleteNativeEntity(String groupName, String name) throws Exception {
 		azure.networkManagementClient().getNetworkSecurityGroupsOperations().delete(groupName, name);
 	}
 
@@ -127,14 +129,17 @@ public class NetworkSecurityGroupsImpl
 			ensureGroup();
 		
 			this.collection.azure().networkManagementClient().getNetworkSecurityGroupsOperations().createOrUpdate(this.groupName, this.name(), this.inner());
-			return get(this.groupName, this.name());
+			return reload(this.groupName, this.name());
+		}
+		
+		@Override
+		public Future<NetworkSecurityGroup> provisionAsync() {
+			return Async.provision(this.executor(), this);
 		}
 		
 		@Override
 		public NetworkSecurityGroup refresh() throws Exception {
-			this.setInner(getNativeEntity(
-					ResourcesImpl.groupFromResourceId(this.id()), 
-					ResourcesImpl.nameFromResourceId(this.id())));
+			refreshEntity(this);
 			return this;
 		}
 
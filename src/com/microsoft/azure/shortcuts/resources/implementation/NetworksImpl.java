@@ -26,10 +26,12 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import java.util.TreeMap;
+import java.util.concurrent.Future;
 
 import com.microsoft.azure.management.network.models.AddressSpace;
 import com.microsoft.azure.management.network.models.DhcpOptions;
 import com.microsoft.azure.management.network.models.VirtualNetwork;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableWrapperImpl;
 import com.microsoft.azure.shortcuts.resources.Network;
@@ -46,7 +48,7 @@ public class NetworksImpl
 	implements Networks {
 	
 	NetworksImpl(Subscription subscription) {
-		super(subscription);
+		super(subscription, subscription.cache());
 	}
 	
 	@Override
@@ -71,7 +73,7 @@ public class NetworksImpl
 	}
 
 	@Override
-	public void delete(String groupName, String name) throws Exception {
+	protected void deleteNativeEntity(String groupName, String name) throws Exception {
 		azure.networkManagementClient().getVirtualNetworksOperations().delete(groupName, name);
 	}
 
@@ -220,15 +222,18 @@ public class NetworksImpl
 			}
 			
 			this.collection.azure().networkManagementClient().getVirtualNetworksOperations().createOrUpdate(this.groupName, this.name(), this.inner());
-			return get(this.groupName, this.name());
+			return reload(this.groupName, this.name());
 			
 		}
 		
+		@Override
+		public Future<Network> provisionAsync() {
+			return Async.provision(this.executor(), this);
+		}
+		
 		@Override
 		public NetworkImpl refresh() throws Exception {
-			this.setInner(getNativeEntity(
-					ResourcesImpl.groupFromResourceId(this.id()), 
-					ResourcesImpl.nameFromResourceId(this.id())));
+			refreshEntity(this);
 			return this;
 		}
 		
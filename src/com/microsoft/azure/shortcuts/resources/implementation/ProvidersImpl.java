@@ -24,10 +24,17 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import com.microsoft.azure.management.resources.models.ProviderResourceType;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableImpl;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableRefreshableWrapperImpl;
+import com.microsoft.azure.shortcuts.common.implementation.SingleFlight;
 import com.microsoft.azure.shortcuts.resources.Provider;
 import com.microsoft.azure.shortcuts.resources.Providers;
 import com.microsoft.azure.shortcuts.resources.common.implementation.ArmEntitiesImpl;
@@ -36,6 +43,15 @@ public class ProvidersImpl
 	extends ArmEntitiesImpl
 	implements Providers {
 	
+	public static final long DEFAULT_API_VERSION_TTL = TimeUnit.HOURS.toMillis(1);
+	
+	// Latest API versions per resource type, keyed by lower case provider namespace
+	private final ConcurrentHashMap<String, ApiVersions> apiVersions = new ConcurrentHashMap<>();
+	private volatile long apiVersionTtl = DEFAULT_API_VERSION_TTL;
+	
+	// Concurrent reads of the same provider share a single call to Azure
+	private final SingleFlight<String, com.microsoft.azure.management.resources.models.Provider> reads = new SingleFlight<>();
+	
 	ProvidersImpl(Subscription subscription) {
 		super(subscription);
 	}
@@ -47,6 +63,7 @@ public class ProvidersImpl
 		for(com.microsoft.azure.management.resources.models.Provider nativeItem : getNativeEntities(azure)) {
 			ProviderImpl wrapper = new ProviderImpl(nativeItem, this);
 			wrappers.put(nativeItem.getNamespace(), wrapper);
+			cacheApiVersions(nativeItem);
 		}
 			
 		return Collections.unmodifiableMap(wrappers);
@@ -55,10 +72,78 @@ public class ProvidersImpl
 	
 	@Override
 	public Provider get(String namespace) throws Exception {
-		com.microsoft.azure.management.resources.models.Provider azureProvider = 
-				azure.resourceManagementClient().getProvidersOperations().get(namespace).getProvider();
-
-		return new ProviderImpl(azureProvider, this);
+		return new ProviderImpl(getNativeEntity(namespace), this);
+	}
+	
+	@Override
+	public Future<Provider> getAsync(String namespace) {
+		return Async.get(this.executor(), this, namespace);
+	}
+	
+	
+	@Override
+	public String latestApiVersion(String namespace, String resourceType) throws Exception {
+		ApiVersions versions = this.apiVersions.get(namespace.toLowerCase());
+		if(versions == null || versions.isExpired()) {
+			versions = cacheApiVersions(getNativeEntity(namespace));
+		}
+		
+		return versions.latest(resourceType);
+	}
+	
+	
+	@Override
+	public void invalidateApiVersions(String namespace) {
+		this.apiVersions.remove(namespace.toLowerCase());
+	}
+	
+	
+	@Override
+	public void invalidateApiVersions() {
+		this.apiVersions.clear();
+	}
+	
+	
+	@Override
+	public ProvidersImpl withApiVersionCacheTtl(long ttl, TimeUnit unit) {
+		this.apiVersionTtl = unit.toMillis(ttl);
+		return this;
+	}
+	
+	
+	// Get a provider from Azure, or wait for the same read already in flight
+	private com.microsoft.azure.management.resources.models.Provider getNativeEntity(final String namespace) throws Exception {
+		return this.reads.get(namespace.toLowerCase(), new Callable<com.microsoft.azure.management.resources.models.Provider>() {
+			@Override
+			public com.microsoft.azure.management.resources.models.Provider call() throws Exception {
+				com.microsoft.azure.management.resources.models.Provider azureProvider = 
+					azure.resourceManagementClient().getProvidersOperations().get(namespace).getProvider();
+				cacheApiVersions(azureProvider);
+				return azureProvider;
+			}
+		});
+	}
+	
+	
+	// Precomputes the latest API versions of all the resource types of the provider and caches them
+	private ApiVersions cacheApiVersions(com.microsoft.azure.management.resources.models.Provider azureProvider) {
+		ApiVersions versions = new ApiVersions(azureProvider, System.currentTimeMillis() + this.apiVersionTtl);
+		this.apiVersions.put(azureProvider.getNamespace().toLowerCase(), versions);
+		return versions;
+	}
+	
+	
+	// Returns the latest of the API versions, without reordering the list
+	private static String latestApiVersion(List<String> versions) {
+		String latest = null;
+		if(versions != null) {
+			for(String version : versions) {
+				if(latest == null || version.compareTo(latest) > 0) {
+					latest = version;
+				}
+			}
+		}
+		return latest;
 	}
 
 
@@ -66,6 +151,30 @@ public class ProvidersImpl
 	private static ArrayList<com.microsoft.azure.management.resources.models.Provider> getNativeEntities(Subscription azure) throws Exception {
 		return azure.resourceManagementClient().getProvidersOperations().list(null).getProviders();		
 	}
+	
+	
+	// Immutable snapshot of the latest API version of each resource type of a provider
+	private static class ApiVersions {
+		private final HashMap<String, String> latestVersions = new HashMap<>();
+		private final long expiresAt;
+		
+		private ApiVersions(com.microsoft.azure.management.resources.models.Provider azureProvider, long expiresAt) {
+			this.expiresAt = expiresAt;
+			if(azureProvider.getResourceTypes() != null) {
+				for(ProviderResourceType type : azureProvider.getResourceTypes()) {
+					this.latestVersions.put(type.getName().toLowerCase(), latestApiVersion(type.getApiVersions()));
+				}
+			}
+		}
+		
+		private boolean isExpired() {
+			return System.currentTimeMillis() >= this.expiresAt;
+		}
+		
+		private String latest(String resourceType) {
+			return this.latestVersions.get(resourceType.toLowerCase());
+		}
+	}
 		
 
 	// Implements logic for individual provider
@@ -81,6 +190,11 @@ public class ProvidersImpl
 			super(azureProvider.getNamespace(), azureProvider);
 			this.collection = collection;
 		}
+		
+		@Override
+		protected Executor executor() {
+			return this.collection.executor();
+		}
 
 
 		/***********************************************************
@@ -117,6 +231,7 @@ public class ProvidersImpl
 			implements Provider.ResourceType {
 
 			final private ProviderResourceType azureResourceType;
+			private String latestApiVersion;
 			
 			private ResourceTypeImpl(ProviderResourceType azureResourceType) {
 				super(azureResourceType.getName());
@@ -130,16 +245,10 @@ public class ProvidersImpl
 
 			@Override
 			public String latestApiVersion() {
-				// Assume the collection is sorted in ascending order
-				ArrayList<String> versions = azureResourceType.getApiVersions();
-				if(versions == null || versions.isEmpty()) {
-					return null;
-				} else if(versions.size() == 1) {
-					return versions.get(0);
-				} else {
-					Collections.sort(versions);
-					return versions.get(versions.size() -1);
+				if(this.latestApiVersion == null) {
+					this.latestApiVersion = ProvidersImpl.latestApiVersion(this.azureResourceType.getApiVersions());
 				}
+				return this.latestApiVersion;
 			}
 		}
 		
@@ -150,9 +259,7 @@ public class ProvidersImpl
 
 		@Override
 		public ProviderImpl refresh() throws Exception {
-			com.microsoft.azure.management.resources.models.Provider azureProvider = 
-				this.collection.azure().resourceManagementClient().getProvidersOperations().get(this.id).getProvider();
-			this.setInner(azureProvider);
+			this.setInner(getNativeEntity(this.id));
 			return this;
 		}
 
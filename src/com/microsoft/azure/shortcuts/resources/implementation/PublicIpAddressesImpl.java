@@ -20,9 +20,11 @@
 package com.microsoft.azure.shortcuts.resources.implementation;
 
 import java.util.List;
+import java.util.concurrent.Future;
 
 import com.microsoft.azure.management.network.models.IpAllocationMethod;
 import com.microsoft.azure.management.network.models.PublicIpAddressDnsSettings;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
 import com.microsoft.azure.shortcuts.resources.PublicIpAddress;
 import com.microsoft.azure.shortcuts.resources.PublicIpAddresses;
@@ -38,7 +40,7 @@ public class PublicIpAddressesImpl
 	implements PublicIpAddresses {
 		
 	PublicIpAddressesImpl(Subscription subscription) {
-		super(subscription);
+		super(subscription, subscription.cache());
 	}
 	
 	@Override
@@ -56,7 +58,7 @@ public class PublicIpAddressesImpl
 	}
 
 	@Override
-	public void delete(String groupName, String name) throws Exception {
+	protected void deleteNativeEntity(String groupName, String name) throws Exception {
 		azure.networkManagementClient().getPublicIpAddressesOperations().delete(groupName, name);
 	}
 
@@ -176,14 +178,17 @@ public class PublicIpAddressesImpl
 			ensureGroup();
 		
 			this.collection.azure().networkManagementClient().getPublicIpAddressesOperations().createOrUpdate(this.groupName, this.name(), this.inner());
-			return get(this.groupName, this.name());
+			return reload(this.groupName, this.name());
+		}
+		
+		@Override
+		public Future<PublicIpAddress> provisionAsync() {
+			return Async.provision(this.executor(), this);
 		}
 		
 		@Override
 		public PublicIpAddressImpl refresh() throws Exception {
-			this.setInner(getNativeEntity(
-					ResourcesImpl.groupFromResourceId(this.id()), 
-					ResourcesImpl.nameFromResourceId(this.id())));
+			refreshEntity(this);
 			return this;
 		}
 	}
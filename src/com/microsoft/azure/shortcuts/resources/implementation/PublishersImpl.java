@@ -24,10 +24,12 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.TreeMap;
+import java.util.concurrent.Future;
 
 import com.microsoft.azure.management.compute.models.VirtualMachineImageListOffersParameters;
 import com.microsoft.azure.management.compute.models.VirtualMachineImageListPublishersParameters;
 import com.microsoft.azure.management.compute.models.VirtualMachineImageResource;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableWrapperImpl;
 import com.microsoft.azure.shortcuts.resources.Offer;
 import com.microsoft.azure.shortcuts.resources.Publisher;
@@ -81,6 +83,11 @@ public class PublishersImpl
 	public Publisher get(String id) throws Exception {
 		return get(Region.fromName(locationFromId(id)), id);
 	}
+	
+	@Override
+	public Future<Publisher> getAsync(String id) {
+		return Async.get(this.executor(), this, id);
+	}
 
 	@Override
 	public Publisher get(Region region, String name) throws Exception {
@@ -0,0 +1,160 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.resources.implementation;
+
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.shortcuts.common.implementation.RetryAfterFilter;
+import com.microsoft.windowsazure.core.pipeline.filter.ServiceRequestContext;
+import com.microsoft.windowsazure.core.pipeline.filter.ServiceRequestFilter;
+import com.microsoft.windowsazure.core.pipeline.filter.ServiceResponseContext;
+import com.microsoft.windowsazure.core.pipeline.filter.ServiceResponseFilter;
+
+// Paces the requests of the SDK clients of a subscription so that ARM does not throttle them, with a token bucket for reads
+// and another one for writes. Each bucket refills at the hourly rate ARM allows, and is corrected from the remaining requests 
+// ARM reports with every response, which also accounts for the requests made by other clients of the same subscription. 
+// A 429 response pauses the requests of its class for as long as ARM asks
+class RateLimiter implements ServiceRequestFilter, ServiceResponseFilter {
+	// The default limits of ARM per subscription and hour
+	static final int DEFAULT_READS_PER_HOUR = 12000;
+	static final int DEFAULT_WRITES_PER_HOUR = 1200;
+	
+	// How long to pause when a 429 response does not say when to retry
+	static final long DEFAULT_RETRY_AFTER = TimeUnit.SECONDS.toMillis(10);
+	
+	private static final String REMAINING_READS_HEADER = "x-ms-ratelimit-remaining-subscription-reads";
+	private static final String REMAINING_WRITES_HEADER = "x-ms-ratelimit-remaining-subscription-writes";
+	private static final String RETRY_AFTER_HEADER = "Retry-After";
+	private static final int TOO_MANY_REQUESTS = 429;
+	
+	private final Bucket reads = new Bucket(DEFAULT_READS_PER_HOUR);
+	private final Bucket writes = new Bucket(DEFAULT_WRITES_PER_HOUR);
+	
+	
+	// Sets the hourly number of reads and writes to pace the requests to, or 0 to not pace that class of requests
+	void setLimits(int readsPerHour, int writesPerHour) {
+		this.reads.setLimit(readsPerHour);
+		this.writes.setLimit(writesPerHour);
+	}
+	
+	
+	// Waits until the request may be sent without being throttled
+	@Override
+	public void filter(ServiceRequestContext request) {
+		try {
+			this.bucketOf(request).acquire();
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting to send a request", e);
+		}
+	}
+	
+	
+	// Learns the remaining requests and any pause ARM asks for from the response
+	@Override
+	public void filter(ServiceRequestContext request, ServiceResponseContext response) {
+		final Bucket bucket = this.bucketOf(request);
+		final String remaining = response.getHeader((bucket == this.reads) ? REMAINING_READS_HEADER : REMAINING_WRITES_HEADER);
+		if(remaining != null) {
+			try {
+				bucket.setRemaining(Integer.parseInt(remaining.trim()));
+			} catch(NumberFormatException e) {
+				// Ignore a malformed header, the bucket keeps pacing on its own
+			}
+		}
+		
+		if(response.getStatus() == TOO_MANY_REQUESTS) {
+			bucket.pause(RetryAfterFilter.parse(response.getHeader(RETRY_AFTER_HEADER), DEFAULT_RETRY_AFTER));
+		}
+	}
+	
+	
+	private Bucket bucketOf(ServiceRequestContext request) {
+		final String method = request.getMethod();
+		return ("GET".equalsIgnoreCase(method) || "HEAD".equalsIgnoreCase(method)) ? this.reads : this.writes;
+	}
+	
+	
+	// A token bucket holding up to an hour's worth of requests, refilled continuously. The tokens may go negative when
+	// requests reserve them ahead of time, each request then waiting for its own token to be refilled
+	static class Bucket {
+		private int limit;
+		private double tokens;
+		private long refilledAt = System.nanoTime();
+		private long pausedUntil = this.refilledAt;
+		
+		Bucket(int limit) {
+			this.limit = limit;
+			this.tokens = limit;
+		}
+		
+		synchronized void setLimit(int limit) {
+			this.refill();
+			this.tokens = Math.min(this.tokens, limit);
+			this.limit = limit;
+		}
+		
+		// ARM counts the requests of every client of the subscription, so its count replaces the local estimate
+		synchronized void setRemaining(int remaining) {
+			this.refill();
+			this.tokens = Math.min(remaining, this.limit);
+		}
+		
+		// Holds back all the requests of the bucket for the specified time
+		synchronized void pause(long millis) {
+			this.pausedUntil = Math.max(this.pausedUntil, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+		}
+		
+		// Takes a token, waiting until it is available
+		void acquire() throws InterruptedException {
+			long wait = this.reserve();
+			while(wait > 0) {
+				TimeUnit.NANOSECONDS.sleep(wait);
+				
+				// A 429 response received meanwhile may have extended the pause
+				wait = this.remainingPause();
+			}
+		}
+		
+		// Takes a token and returns how long to wait before it may be used, in nanoseconds
+		private synchronized long reserve() {
+			if(this.limit <= 0) {
+				return 0;
+			}
+			
+			this.refill();
+			this.tokens -= 1;
+			long wait = (this.tokens >= 0) ? 0 : (long)(-this.tokens * TimeUnit.HOURS.toNanos(1) / this.limit);
+			return Math.max(wait, this.remainingPause());
+		}
+		
+		private synchronized long remainingPause() {
+			return Math.max(this.pausedUntil - System.nanoTime(), 0);
+		}
+		
+		private void refill() {
+			final long now = System.nanoTime();
+			if(this.limit > 0) {
+				this.tokens = Math.min(this.tokens + (double)(now - this.refilledAt) * this.limit / TimeUnit.HOURS.toNanos(1), this.limit);
+			}
+			this.refilledAt = now;
+		}
+	}
+}
@@ -19,20 +19,31 @@
 */
 package com.microsoft.azure.shortcuts.resources.implementation;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import com.microsoft.azure.management.resources.models.ResourceGroupExtended;
+import com.microsoft.azure.management.resources.models.ResourceGroupListResult;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableRefreshableWrapperImpl;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator.Page;
+import com.microsoft.azure.shortcuts.common.implementation.Poller;
 import com.microsoft.azure.shortcuts.resources.ResourceGroup;
 import com.microsoft.azure.shortcuts.resources.ResourceGroups;
 import com.microsoft.azure.shortcuts.resources.Region;
+import com.microsoft.azure.shortcuts.resources.common.implementation.ArmEntitiesImpl;
 
 public class ResourceGroupsImpl 
-	extends EntitiesImpl<Subscription>
+	extends ArmEntitiesImpl
 	implements ResourceGroups {
 	
 	ResourceGroupsImpl(Subscription subscription) {
@@ -43,13 +54,34 @@ public class ResourceGroupsImpl
 	@Override
 	public Map<String, ResourceGroup> asMap() throws Exception {
 		HashMap<String, ResourceGroup> wrappers = new HashMap<>();
-		for(ResourceGroupExtended nativeItem : getNativeEntities()) {
-			ResourceGroupImpl wrapper = new ResourceGroupImpl(nativeItem, this);
-			wrappers.put(nativeItem.getName(), wrapper);
-		}
+		String nextLink = null;
+		do {
+			Page<ResourceGroupExtended> page = getNativePage(nextLink);
+			for(ResourceGroupExtended nativeItem : page.items()) {
+				ResourceGroupImpl wrapper = new ResourceGroupImpl(nativeItem, this);
+				wrappers.put(nativeItem.getName(), wrapper);
+			}
+			nextLink = page.nextLink();
+		} while(nextLink != null && !nextLink.isEmpty());
 		
 		return Collections.unmodifiableMap(wrappers);
 	}
+	
+	
+	@Override
+	public Iterator<ResourceGroup> asIterator() throws Exception {
+		return new PagedIterator<ResourceGroupExtended, ResourceGroup>(getNativePage(null)) {
+			@Override
+			protected Page<ResourceGroupExtended> nextPage(String nextLink) throws Exception {
+				return getNativePage(nextLink);
+			}
+
+			@Override
+			protected ResourceGroup wrap(ResourceGroupExtended nativeItem) {
+				return new ResourceGroupImpl(nativeItem, ResourceGroupsImpl.this);
+			}
+		};
+	}
 
 		
 	@Override
@@ -59,11 +91,46 @@ public class ResourceGroupsImpl
 		return new ResourceGroupImpl(azureGroup, this);
 	}
 	
+	@Override
+	public Future<ResourceGroup> getAsync(String name) {
+		return Async.get(this.executor(), this, name);
+	}
+	
 	
 	@Override
-	public void delete(String name) throws Exception {
+	public void delete(final String name) throws Exception {
 		azure.resourceManagementClient().getResourceGroupsOperations().delete(name);
-		//TODO: Apparently the effect of the deletion is not immediate - Azure SDK misleadingly returns from this synch call even though listing resource groups will still include this
+		azure.invalidateCache(name);
+		
+		// The effect of the deletion is not immediate, as listing resource groups still includes the group for a while after
+		// the SDK returns. Callers needing the group gone wait for it explicitly with waitUntilDeleted()
+	}
+	
+	
+	@Override
+	public void waitUntilDeleted(String name, long timeout, TimeUnit unit) throws Exception {
+		try {
+			this.waitUntilDeletedAsync(name, timeout, unit).get();
+		} catch(ExecutionException e) {
+			throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+		}
+	}
+	
+	
+	@Override
+	public Future<?> waitUntilDeletedAsync(final String name, long timeout, TimeUnit unit) {
+		return Poller.waitUntil(new Callable<Boolean>() {
+			@Override
+			public Boolean call() throws Exception {
+				if(azure.resourceManagementClient().getResourceGroupsOperations().checkExistence(name).isExists()) {
+					return false;
+				}
+				
+				// Drop anything cached while the group was still reported
+				azure.invalidateCache(name);
+				return true;
+			}
+		}, timeout, unit, this.executor());
 	}
 	
 
@@ -91,9 +158,15 @@ public class ResourceGroupsImpl
 		
 	}
 	
-	// Helper to get the resource groups from Azure
-	private ArrayList<ResourceGroupExtended> getNativeEntities() throws Exception {
-		return this.azure.resourceManagementClient().getResourceGroupsOperations().list(null).getResourceGroups();		
+	// Helper to get a page of resource groups from Azure, the first one if the link is null
+	private Page<ResourceGroupExtended> getNativePage(String nextLink) throws Exception {
+		final ResourceGroupListResult result;
+		if(nextLink != null) {
+			result = this.azure.resourceManagementClient().getResourceGroupsOperations().listNext(nextLink);
+		} else {
+			result = this.azure.resourceManagementClient().getResourceGroupsOperations().list(null);
+		}
+		return new Page<>(result.getResourceGroups(), result.getNextLink());
 	}
 	
 	
@@ -115,6 +188,11 @@ public class ResourceGroupsImpl
 			super(azureGroup.getName(), azureGroup);
 			this.collection = collection;
 		}
+		
+		@Override
+		protected Executor executor() {
+			return this.collection.executor();
+		}
 
 
 		/***********************************************************
@@ -209,6 +287,11 @@ public class ResourceGroupsImpl
 		public void delete() throws Exception {
 			this.collection.azure().resourceGroups().delete(this.id);
 		}
+		
+		@Override
+		public Future<Void> deleteAsync() {
+			return Async.delete(this.executor(), this);
+		}
 
 		
 		@Override
@@ -220,6 +303,11 @@ public class ResourceGroupsImpl
 			this.collection.azure().resourceManagementClient().getResourceGroupsOperations().createOrUpdate(this.id, params);
 			return this;
 		}
+		
+		@Override
+		public Future<ResourceGroup> provisionAsync() {
+			return Async.provision(this.executor(), this);
+		}
 
 		
 		@Override
@@ -19,24 +19,29 @@
 */
 package com.microsoft.azure.shortcuts.resources.implementation;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import com.microsoft.azure.management.resources.models.GenericResourceExtended;
 import com.microsoft.azure.management.resources.models.ResourceListParameters;
+import com.microsoft.azure.management.resources.models.ResourceListResult;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
-import com.microsoft.azure.shortcuts.resources.Provider;
-import com.microsoft.azure.shortcuts.resources.Provider.ResourceType;
+import com.microsoft.azure.shortcuts.common.implementation.LazyWrapperMap;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator.Page;
 import com.microsoft.azure.shortcuts.resources.common.implementation.GroupableResourceBaseImpl;
+import com.microsoft.azure.shortcuts.resources.common.implementation.ResourceId;
 import com.microsoft.azure.shortcuts.resources.Resource;
 import com.microsoft.azure.shortcuts.resources.Resources;
+import com.microsoft.azure.shortcuts.resources.common.implementation.ArmEntitiesImpl;
 import com.microsoft.windowsazure.core.ResourceIdentity;
 
 
 public class ResourcesImpl
-	extends EntitiesImpl<Subscription>
+	extends ArmEntitiesImpl
 	implements Resources {
 	
 	ResourcesImpl(Subscription subscription) {
@@ -44,71 +49,34 @@ public class ResourcesImpl
 	}
 	
 
-	// Indexes to the parts in the resource id
-	private enum RESOURCE_ID {
-		// Assumes this format: /subscriptions/{subscriptionId}/resourceGroups/{resourceGroupName}/{resourceProviderNamespace}/{resourceType}/{resourceName}
-		SUBSCRIPTION(2),
-		GROUP(4),
-		PROVIDER(6),
-		TYPE(7),
-		NAME(8);
-		
-	    public final int val;
-	    RESOURCE_ID(int val) {
-	        this.val = val;
-	    }
-	    
-	    // Returns the requested part of the resource id
-	    public String from(String resourceId) {
-	    	String[] parts = resourceId.split("/");
-	    	if(parts.length == 1 && this.val == NAME.val) {
-	    		return parts[0];
-	    	} else if(parts.length <= this.val) {
-	    		return null;
-	    	} else {
-	    		return parts[this.val];
-	    	}
-	    }
-	    
-	    // Returns a new ID based on the provided one, with the group set as specified
-	    public String setInID(String groupName, String id) {
-	    	String[] parts = id.split("/");
-	    	if(parts.length <= this.val) {
-	    		return null;
-	    	} else {
-	    		parts[this.val] = groupName;
-	    		StringBuilder newId = new StringBuilder();
-	    		for(int i = 0; i< parts.length; i++) {
-	    			if(i>0) newId.append("/");
-	    			newId.append(parts[i]);
-	    		}
-	    		return newId.toString();
-	    	}
-	    }
-	}
- 	
-
 	public static String groupFromResourceId(String id) {
-		return RESOURCE_ID.GROUP.from(id);
+		return ResourceId.groupFromResourceId(id);
 	}
 	
 	
 	public static String nameFromResourceId(String id) {
-		return RESOURCE_ID.NAME.from(id);
+		return ResourceId.nameFromResourceId(id);
 	}
 	
 	
 	public static String resourceIdWithGroup(String group, String resourceId) {
-		return RESOURCE_ID.GROUP.setInID(group, resourceId);
+		ResourceId id = ResourceId.parse(resourceId);
+		return (id == null) ? null : id.withResourceGroup(group);
 	}
 	
 	
     // Instantiates a ResourceIdentity from the ID
     public ResourceIdentity createResourceIdentity(String resourceId) throws Exception {
+    	return createResourceIdentity(ResourceId.parse(resourceId));
+    }
+    
+    
+    // Instantiates a ResourceIdentity from the parsed ID
+    private ResourceIdentity createResourceIdentity(ResourceId resourceId) throws Exception {
     	return createResourceIdentity(
-    		RESOURCE_ID.NAME.from(resourceId),
-    		RESOURCE_ID.TYPE.from(resourceId),
-    		RESOURCE_ID.PROVIDER.from(resourceId));
+    		resourceId.name(),
+    		resourceId.type(),
+    		resourceId.provider());
     }
     
 	
@@ -119,23 +87,26 @@ public class ResourcesImpl
 		identity.setResourceProviderNamespace(provider);
 		identity.setResourceType(type);
 		
-		// Find latest API version
-		final Provider p = azure.providers().get(provider);
-		ResourceType t = p.resourceTypes(type);
-		if(t == null) {
-			return identity;
+		// Find latest API version, using the provider information cached by the subscription
+		final String latestApiVersion = azure.providers().latestApiVersion(provider, type);
+		if(latestApiVersion != null) {
+			identity.setResourceProviderApiVersion(latestApiVersion);
 		}
-		final String latestApiVersion = t.latestApiVersion();
-		identity.setResourceProviderApiVersion(latestApiVersion);
     	return identity;
     }
 
 
 	@Override
 	public Resource get(String id) throws Exception {
+		ResourceId resourceId = ResourceId.parse(id);
 		return this.get(
-			RESOURCE_ID.GROUP.from(id), 
-			createResourceIdentity(id));
+			resourceId.resourceGroup(), 
+			createResourceIdentity(resourceId));
+	}
+	
+	@Override
+	public Future<Resource> getAsync(String id) {
+		return Async.get(this.executor(), this, id);
 	}
 	
 	
@@ -156,9 +127,11 @@ public class ResourcesImpl
 	
 	@Override
 	public void delete(String id) throws Exception {
+		ResourceId resourceId = ResourceId.parse(id);
 		azure.resourceManagementClient().getResourcesOperations().delete(
-			RESOURCE_ID.GROUP.from(id), 
-			createResourceIdentity(id));
+			resourceId.resourceGroup(), 
+			createResourceIdentity(resourceId));
+		azure.invalidateCache(resourceId.resourceGroup());
 	}
 	
 	
@@ -167,6 +140,7 @@ public class ResourcesImpl
 		azure.resourceManagementClient().getResourcesOperations().delete(
 			group, 
 			createResourceIdentity(name, type, provider));
+		azure.invalidateCache(group);
 	}
 	
 	
@@ -178,13 +152,44 @@ public class ResourcesImpl
 	
 	@Override
 	public Map<String, Resource> asMap(String groupName) throws Exception {
-		HashMap<String, Resource> wrappers = new HashMap<>();
-		for(GenericResourceExtended nativeItem : getNativeEntities(groupName)) {
-			ResourceImpl wrapper = new ResourceImpl(nativeItem, this);
-			wrappers.put(nativeItem.getId(), wrapper);
-		}
+		HashMap<String, GenericResourceExtended> nativeItems = new HashMap<>();
+		String nextLink = null;
+		do {
+			Page<GenericResourceExtended> page = getNativePage(groupName, nextLink);
+			for(GenericResourceExtended nativeItem : page.items()) {
+				nativeItems.put(nativeItem.getId(), nativeItem);
+			}
+			nextLink = page.nextLink();
+		} while(nextLink != null && !nextLink.isEmpty());
 		
-		return Collections.unmodifiableMap(wrappers);
+		return new LazyWrapperMap<Resource, GenericResourceExtended>(nativeItems) {
+			@Override
+			protected Resource wrap(GenericResourceExtended nativeItem) {
+				return new ResourceImpl(nativeItem, ResourcesImpl.this);
+			}
+		};
+	}
+
+	
+	@Override
+	public Iterator<Resource> asIterator() throws Exception {
+		return this.asIterator(null);
+	}
+	
+	
+	@Override
+	public Iterator<Resource> asIterator(final String groupName) throws Exception {
+		return new PagedIterator<GenericResourceExtended, Resource>(getNativePage(groupName, null)) {
+			@Override
+			protected Page<GenericResourceExtended> nextPage(String nextLink) throws Exception {
+				return getNativePage(groupName, nextLink);
+			}
+
+			@Override
+			protected Resource wrap(GenericResourceExtended nativeItem) {
+				return new ResourceImpl(nativeItem, ResourcesImpl.this);
+			}
+		};
 	}
 
 	
@@ -192,10 +197,17 @@ public class ResourcesImpl
 	 * Helpers
 	 ***********************************************************/
 	
-	private ArrayList<GenericResourceExtended> getNativeEntities(String groupName) throws Exception {
-		ResourceListParameters params = new ResourceListParameters(); 
-		params.setResourceGroupName(groupName);
-		return azure.resourceManagementClient().getResourcesOperations().list(params).getResources();
+	// Returns a page of resources, the first one if the link is null
+	private Page<GenericResourceExtended> getNativePage(String groupName, String nextLink) throws Exception {
+		final ResourceListResult result;
+		if(nextLink != null) {
+			result = azure.resourceManagementClient().getResourcesOperations().listNext(nextLink);
+		} else {
+			ResourceListParameters params = new ResourceListParameters(); 
+			params.setResourceGroupName(groupName);
+			result = azure.resourceManagementClient().getResourcesOperations().list(params);
+		}
+		return new Page<>(result.getResources(), result.getNextLink());
 	}
 	
 
@@ -220,7 +232,7 @@ public class ResourcesImpl
 
 		@Override
 		public String provider() throws Exception {
-			return RESOURCE_ID.PROVIDER.from(this.inner().getId());
+			return this.resourceId().provider();
 		}
 
 		@Override
@@ -245,9 +257,10 @@ public class ResourcesImpl
 
 		@Override
 		public ResourceImpl refresh() throws Exception {
+			ResourceId resourceId = this.resourceId();
 			return refresh(
-				RESOURCE_ID.GROUP.from(this.id),
-				createResourceIdentity(this.id));
+				resourceId.resourceGroup(),
+				createResourceIdentity(resourceId));
 		}
 		
 		
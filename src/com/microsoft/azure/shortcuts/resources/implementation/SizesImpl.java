@@ -31,10 +31,11 @@ import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableImpl;
 import com.microsoft.azure.shortcuts.resources.Size;
 import com.microsoft.azure.shortcuts.resources.Sizes;
+import com.microsoft.azure.shortcuts.resources.common.implementation.ArmEntitiesImpl;
 import com.microsoft.windowsazure.exception.ServiceException;
 
 public class SizesImpl 
-	extends EntitiesImpl<Subscription>
+	extends ArmEntitiesImpl
 	implements Sizes {
 
 	SizesImpl(Subscription subscription) {
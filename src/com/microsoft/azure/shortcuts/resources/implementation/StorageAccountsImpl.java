@@ -22,9 +22,11 @@ package com.microsoft.azure.shortcuts.resources.implementation;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import com.microsoft.azure.management.storage.models.AccountType;
 import com.microsoft.azure.management.storage.models.StorageAccountCreateParameters;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
 import com.microsoft.azure.shortcuts.resources.StorageAccount;
 import com.microsoft.azure.shortcuts.resources.StorageAccounts;
@@ -40,7 +42,7 @@ public class StorageAccountsImpl
 	implements StorageAccounts {
 	
 	StorageAccountsImpl(Subscription subscription) {
-		super(subscription);
+		super(subscription, subscription.cache());
 	}
 	
 	@Override
@@ -51,7 +53,7 @@ public class StorageAccountsImpl
 	}
 	
 	@Override
-	public void delete(String groupName, String name) throws Exception {
+	protected void deleteNativeEntity(String groupName, String name) throws Exception {
 		azure.storageManagementClient().getStorageAccountsOperations().delete(groupName, name);
 	}
 
@@ -150,15 +152,18 @@ public class StorageAccountsImpl
 			params.setTags(this.inner().getTags());
 
 			this.collection.azure().storageManagementClient().getStorageAccountsOperations().create(this.groupName, this.name(), params);
-			return get(this.groupName, this.name());
+			return reload(this.groupName, this.name());
+		}
+		
+		@Override
+		public Future<StorageAccount> provisionAsync() {
+			return Async.provision(this.executor(), this);
 		}
 
 
 		@Override
 		public StorageAccountImpl refresh() throws Exception {
-			this.setInner(getNativeEntity(
-				ResourcesImpl.groupFromResourceId(this.id()), 
-				ResourcesImpl.nameFromResourceId(this.id())));
+			refreshEntity(this);
 			return this;
 		}
 
@@ -27,6 +27,13 @@ import com.microsoft.azure.management.resources.ResourceManagementClient;
 import com.microsoft.azure.management.resources.ResourceManagementService;
 import com.microsoft.azure.management.storage.StorageManagementClient;
 import com.microsoft.azure.management.storage.StorageManagementService;
+import com.microsoft.azure.shortcuts.common.CacheStatistics;
+import com.microsoft.azure.shortcuts.common.Metrics;
+import com.microsoft.azure.shortcuts.common.RetryPolicy;
+import com.microsoft.azure.shortcuts.common.Tracer;
+import com.microsoft.azure.shortcuts.common.implementation.EntityCache;
+import com.microsoft.azure.shortcuts.common.implementation.RetryAfterFilter;
+import com.microsoft.azure.shortcuts.common.implementation.RetryingProxy;
 import com.microsoft.azure.shortcuts.common.implementation.Utils;
 import com.microsoft.azure.shortcuts.resources.AvailabilitySet;
 import com.microsoft.azure.shortcuts.resources.AvailabilitySets;
@@ -54,13 +61,17 @@ import com.microsoft.azure.shortcuts.resources.StorageAccount;
 import com.microsoft.azure.shortcuts.resources.StorageAccounts;
 import com.microsoft.azure.shortcuts.resources.VirtualMachine;
 import com.microsoft.azure.shortcuts.resources.VirtualMachines;
-import com.microsoft.azure.utility.AuthHelper;
+import com.microsoft.azure.shortcuts.resources.common.implementation.GroupableResourcesBaseImpl;
 import com.microsoft.windowsazure.Configuration;
+import com.microsoft.windowsazure.core.FilterableService;
 import com.microsoft.windowsazure.management.configuration.ManagementConfiguration;
 import com.microsoft.windowsazure.management.configuration.PublishSettingsLoader;
 
 import java.io.File;
 import java.net.URI;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -73,11 +84,21 @@ public class Subscription {
     public static String ARM_URL = "https://management.azure.com/";
     public static String ARM_AAD_URL = "https://login.windows.net/";
 
-    private Configuration configuration;
-    private ResourceManagementClient resourceManagementClient;
-    private StorageManagementClient storageManagementClient;
-    private ComputeManagementClient computeManagementClient;
-    private NetworkResourceProviderClient networkResourceProviderClient;
+    private static final String ACCESS_TOKEN_PROPERTY = Subscription.class.getName() + ".accessToken";
+
+    private final Configuration configuration;
+    private final AccessTokens.Token accessToken;
+    private final Object clientLock = new Object();
+    private volatile ResourceManagementClient resourceManagementClient;
+    private volatile StorageManagementClient storageManagementClient;
+    private volatile ComputeManagementClient computeManagementClient;
+    private volatile NetworkResourceProviderClient networkResourceProviderClient;
+    private volatile Executor executor;
+    private final EntityCache cache = new EntityCache();
+    private final RateLimiter rateLimiter = new RateLimiter();
+    private final RetryPolicy retryPolicy = new RetryPolicy();
+    private final AtomicReference<Metrics> metrics = new AtomicReference<>(Metrics.NONE);
+    private volatile Tracer tracer = Tracer.NONE;
 
     private final ResourcesImpl resources;
     private final ResourceGroupsImpl resourceGroups;
@@ -105,6 +126,11 @@ public class Subscription {
     	return new Subscription(authenticationFilePath, subscriptionId);
     }
     
+    // Returns a subscription calling the ARM endpoint at the base URI with the access token as is, such as a local stand-in for ARM in tests
+    public static Subscription connect(String subscriptionId, URI baseUri, String accessToken) throws Exception {
+    	return new Subscription(ManagementConfiguration.configure((String)null, baseUri, subscriptionId, accessToken));
+    }
+    
     private Subscription(String subscriptionId, String tenantId, String clientId, String clientKey) throws Exception {
     	this(createConfiguration(subscriptionId, tenantId, clientId, clientKey, null, null, null));
     }
@@ -117,6 +143,7 @@ public class Subscription {
     
     private Subscription(Configuration configuration) {
     	this.configuration = configuration;
+    	this.accessToken = (AccessTokens.Token) configuration.getProperty(ACCESS_TOKEN_PROPERTY);
         this.resources = new ResourcesImpl(this);
         this.resourceGroups = new ResourceGroupsImpl(this);
         this.providers = new ProvidersImpl(this);
@@ -149,6 +176,74 @@ public class Subscription {
     //* Getters
     //**********************************************************
 
+    // Returns the executor running independent Azure calls concurrently, such as the provisioning steps of a virtual machine
+    public Executor executor() {
+    	return (this.executor != null) ? this.executor : Utils.defaultExecutor();
+    }
+    
+    // Sets the executor running independent Azure calls concurrently, or null for the shared default one
+    public Subscription withExecutor(Executor executor) {
+    	this.executor = executor;
+    	return this;
+    }
+
+    // Enables caching the entities read from Azure for the specified time, up to the specified number of entities, 
+    // evicting the least recently used ones first. Passing 0 for either bound disables caching, which is the default
+    public Subscription withCache(int maxSize, long ttl, TimeUnit unit) {
+    	this.cache.withBounds(maxSize, ttl, unit);
+    	return this;
+    }
+    
+    // Sets the hourly number of reads and writes the calls made through the subscription are paced to, or 0 to not pace them.
+    // By default, the calls are paced to the limits of ARM, adjusted by the remaining number of calls ARM reports
+    public Subscription withRateLimits(int readsPerHour, int writesPerHour) {
+    	this.rateLimiter.setLimits(readsPerHour, writesPerHour);
+    	return this;
+    }
+    
+    // Returns the policy retrying the failed calls made through the subscription, which may be changed at any time
+    public RetryPolicy retryPolicy() {
+    	return this.retryPolicy;
+    }
+    
+    // Sets the metrics the calls made through the subscription are reported to, or null to stop reporting them
+    public Subscription withMetrics(Metrics metrics) {
+    	this.metrics.set((metrics != null) ? metrics : Metrics.NONE);
+    	return this;
+    }
+    
+    // Sets the tracer receiving the spans of the provisioning of virtual machines, with a span per dependency ensured and per call 
+    // to Azure, or null to stop tracing
+    public Subscription withTracer(Tracer tracer) {
+    	this.tracer = (tracer != null) ? tracer : Tracer.NONE;
+    	return this;
+    }
+    
+    Tracer tracer() {
+    	return this.tracer;
+    }
+    
+    // Returns the hit and miss statistics of the entity cache
+    public CacheStatistics cacheStatistics() {
+    	return this.cache;
+    }
+    
+    // Drops all the cached entities, so they are read from Azure again when next needed
+    public void invalidateCache() {
+    	this.cache.invalidateAll();
+    }
+    
+    // Drops the cached entities of the resource group, along with the subscription-wide listings that may include them
+    public void invalidateCache(String groupName) {
+    	this.cache.invalidateByPrefix(GroupableResourcesBaseImpl.cacheKeyPrefix(groupName));
+    	this.cache.invalidateByPrefix(GroupableResourcesBaseImpl.cacheKeyPrefix(null));
+    }
+    
+    // Returns the cache of entities shared by the collections of the subscription, which only get it when they are created
+    EntityCache cache() {
+    	return this.cache;
+    }
+
     public NetworkSecurityGroups networkSecurityGroups() {
     	return this.networkSecurityGroups;
     }
@@ -342,44 +437,120 @@ public class Subscription {
     }
     
     
-    // Returns the compute management client, creating if needed
+    // The SDK clients that can be created ahead of their first use
+    public enum Client {
+    	COMPUTE,
+    	NETWORK,
+    	RESOURCE,
+    	STORAGE
+    }
+    
+    
+    // Creates the specified clients now rather than on first use, so that the first call on a hot path does not pay for their construction
+    public Subscription warmUp(Client... clients) {
+    	for(Client client : clients) {
+    		switch(client) {
+    		case COMPUTE:
+    			this.computeManagementClient();
+    			break;
+    		case NETWORK:
+    			this.networkManagementClient();
+    			break;
+    		case RESOURCE:
+    			this.resourceManagementClient();
+    			break;
+    		case STORAGE:
+    			this.storageManagementClient();
+    			break;
+    		}
+    	}
+    	return this;
+    }
+    
+    
+    // Creates all the clients now rather than on first use
+    public Subscription warmUp() {
+    	return this.warmUp(Client.values());
+    }
+    
+    
+    // Returns the compute management client, creating it once if needed, even when first used from several threads at a time
     ComputeManagementClient computeManagementClient() {
-    	if(this.computeManagementClient == null) {
-    		this.computeManagementClient = ComputeManagementService.create(this.configuration);
+    	ComputeManagementClient client = this.computeManagementClient;
+    	if(client == null) {
+    		synchronized(this.clientLock) {
+    			client = this.computeManagementClient;
+    			if(client == null) {
+    				this.computeManagementClient = client = this.filtered(ComputeManagementService.create(this.configuration), ComputeManagementClient.class);
+    			}
+    		}
     	}
     	
-    	return this.computeManagementClient;
+    	return client;
     }
     
     
-    // Returns the network management client, creating if needed
+    // Returns the network management client, creating it once if needed
     NetworkResourceProviderClient networkManagementClient() {
-    	if(this.networkResourceProviderClient == null) {
-    		this.networkResourceProviderClient = NetworkResourceProviderService.create(this.configuration);
+    	NetworkResourceProviderClient client = this.networkResourceProviderClient;
+    	if(client == null) {
+    		synchronized(this.clientLock) {
+    			client = this.networkResourceProviderClient;
+    			if(client == null) {
+    				this.networkResourceProviderClient = client = this.filtered(NetworkResourceProviderService.create(this.configuration), NetworkResourceProviderClient.class);
+    			}
+    		}
     	}
     	
-    	return this.networkResourceProviderClient;
+    	return client;
     }
     
     
-    // Returns the resource management client, creating if needed
+    // Returns the resource management client, creating it once if needed
     ResourceManagementClient resourceManagementClient() {
-    	if(this.resourceManagementClient == null) {
-    		this.resourceManagementClient = ResourceManagementService.create(this.configuration);
+    	ResourceManagementClient client = this.resourceManagementClient;
+    	if(client == null) {
+    		synchronized(this.clientLock) {
+    			client = this.resourceManagementClient;
+    			if(client == null) {
+    				this.resourceManagementClient = client = this.filtered(ResourceManagementService.create(this.configuration), ResourceManagementClient.class);
+    			}
+    		}
     	}
     	
-    	return this.resourceManagementClient;
-
+    	return client;
     }
 
     
-    // Returns the storage management client
+    // Returns the storage management client, creating it once if needed
     StorageManagementClient storageManagementClient() {
-    	if(this.storageManagementClient == null) {
-    		this.storageManagementClient = StorageManagementService.create(this.configuration);
+    	StorageManagementClient client = this.storageManagementClient;
+    	if(client == null) {
+    		synchronized(this.clientLock) {
+    			client = this.storageManagementClient;
+    			if(client == null) {
+    				this.storageManagementClient = client = this.filtered(StorageManagementService.create(this.configuration), StorageManagementClient.class);
+    			}
+    		}
     	}
     	
-    	return this.storageManagementClient;
+    	return client;
+    }
+    
+    
+    // Makes the client pace its requests so that ARM does not throttle them, and authenticate each request with the current 
+    // access token rather than with the one it was configured with, unless the subscription was authenticated with a management certificate.
+    // The calls of the client are retried according to the retry policy of the subscription, not sooner than ARM asks to, and reported 
+    // to its metrics
+    private <T extends FilterableService<T>> T filtered(T client, Class<T> type) {
+    	client = client
+    		.withRequestFilterLast(this.rateLimiter)
+    		.withResponseFilterLast(this.rateLimiter)
+    		.withResponseFilterLast(RetryAfterFilter.INSTANCE);
+    	if(this.accessToken != null) {
+    		client = client.withRequestFilterLast(this.accessToken);
+    	}
+    	return RetryingProxy.wrap(client, type, this.retryPolicy, this.metrics);
     }
     
     
@@ -409,18 +580,21 @@ public class Subscription {
 			authUrl = Subscription.ARM_AAD_URL;
 		}
 		
-		String accessToken = AuthHelper.getAccessTokenFromServicePrincipalCredentials(
+		// Share the token with the other subscriptions of the same service principal, and keep it current
+		AccessTokens.Token accessToken = AccessTokens.get(
 			managementUri, 
 			authUrl,
 			tenantId, 
 			clientId, 
-			clientKey).getAccessToken();
+			clientKey);
 		
-		return ManagementConfiguration.configure(
+		Configuration configuration = ManagementConfiguration.configure(
 			(String)null, 
 			baseUri,
 			subscriptionId,
-			accessToken);
+			accessToken.accessToken());
+		configuration.setProperty(ACCESS_TOKEN_PROPERTY, accessToken);
+		return configuration;
 	}
 
 }
@@ -25,6 +25,12 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import com.microsoft.azure.management.compute.models.AvailabilitySetReference;
 import com.microsoft.azure.management.compute.models.BootDiagnostics;
@@ -42,7 +48,13 @@ import com.microsoft.azure.management.compute.models.StorageProfile;
 import com.microsoft.azure.management.compute.models.VirtualHardDisk;
 import com.microsoft.azure.management.compute.models.VirtualMachineCaptureParameters;
 import com.microsoft.azure.management.compute.models.VirtualMachineExtension;
+import com.microsoft.azure.management.compute.models.VirtualMachineListResponse;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
+import com.microsoft.azure.shortcuts.common.implementation.BoundedExecutor;
 import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator.Page;
+import com.microsoft.azure.shortcuts.common.implementation.SpanImpl;
+import com.microsoft.azure.shortcuts.common.implementation.TaskGraph;
 import com.microsoft.azure.shortcuts.resources.AvailabilitySet;
 import com.microsoft.azure.shortcuts.resources.ResourceGroup;
 import com.microsoft.azure.shortcuts.resources.Network;
@@ -63,7 +75,7 @@ public class VirtualMachinesImpl
 	implements VirtualMachines {
 	
 	VirtualMachinesImpl(Subscription subscription) {
-		super(subscription);
+		super(subscription, subscription.cache());
 	}
 
 	/*****************************************************
@@ -98,9 +110,34 @@ public class VirtualMachinesImpl
 	}
 	
 	@Override
-	public void delete(String groupName, String name) throws Exception {
+	protected void deleteNativeEntity(String groupName, String name) throws Exception {
 		azure.computeManagementClient().getVirtualMachinesOperations().delete(groupName, name);
 	}
+	
+	@Override
+	public List<Future<VirtualMachine>> provisionBatch(List<? extends VirtualMachine.DefinitionProvisionable> definitions, int maxConcurrency) {
+		// Check all the definitions before provisioning any
+		final List<VirtualMachineImpl> vms = new ArrayList<>();
+		for(VirtualMachine.DefinitionProvisionable definition : definitions) {
+			if(!(definition instanceof VirtualMachineImpl)) {
+				throw new IllegalArgumentException("Only the definitions created by define() can be provisioned in a batch");
+			}
+			vms.add((VirtualMachineImpl) definition);
+		}
+		
+		final SharedDependencies shared = new SharedDependencies();
+		final Executor executor = new BoundedExecutor(this.executor(), maxConcurrency);
+		List<Future<VirtualMachine>> results = new ArrayList<>();
+		for(final VirtualMachineImpl vm : vms) {
+			results.add(Async.submit(executor, new Callable<VirtualMachine>() {
+				@Override
+				public VirtualMachine call() throws Exception {
+					return vm.provision(shared);
+				}
+			}));
+		}
+		return Collections.unmodifiableList(results);
+	}
 
 	
 	/***************************************************
@@ -116,6 +153,19 @@ public class VirtualMachinesImpl
 		}
 	}
 	
+	@Override
+	protected Page<com.microsoft.azure.management.compute.models.VirtualMachine> getNativePage(String groupName, String nextLink) throws Exception {
+		VirtualMachineListResponse response;
+		if(nextLink != null) {
+			response = azure.computeManagementClient().getVirtualMachinesOperations().listNext(nextLink);
+		} else if(groupName != null) {
+			response = azure.computeManagementClient().getVirtualMachinesOperations().list(groupName);
+		} else {
+			response = azure.computeManagementClient().getVirtualMachinesOperations().listAll(null);
+		}
+		return new Page<>(response.getVirtualMachines(), response.getNextLink());
+	}
+	
 	@Override
 	protected com.microsoft.azure.management.compute.models.VirtualMachine getNativeEntity(String groupName, String name) throws Exception {
 		return azure.computeManagementClient().getVirtualMachinesOperations().get(groupName, name).getVirtualMachine();
@@ -125,6 +175,34 @@ public class VirtualMachinesImpl
 	protected VirtualMachineImpl wrap(com.microsoft.azure.management.compute.models.VirtualMachine nativeItem) {
 		return new VirtualMachineImpl(nativeItem, this);
 	}
+	
+	
+	// Dependencies ensured once on behalf of all the virtual machines of a batch, by kind and name
+	private static class SharedDependencies {
+		private final ConcurrentHashMap<String, FutureTask<Object>> dependencies = new ConcurrentHashMap<>();
+		
+		// Runs the task if it is the first one for the dependency, otherwise waits for the outcome of the first one
+		@SuppressWarnings("unchecked")
+		private <T> T ensure(String key, Callable<T> task) throws Exception {
+			FutureTask<Object> dependency = new FutureTask<Object>((Callable<Object>) task);
+			FutureTask<Object> existing = this.dependencies.putIfAbsent(key, dependency);
+			if(existing == null) {
+				dependency.run();
+			} else {
+				dependency = existing;
+			}
+			
+			try {
+				return (T) dependency.get();
+			} catch(ExecutionException e) {
+				if(e.getCause() instanceof Exception) {
+					throw (Exception) e.getCause();
+				} else {
+					throw e;
+				}
+			}
+		}
+	}
 		
 	
 	/***************************************************
@@ -532,31 +610,91 @@ public class VirtualMachinesImpl
 		
 		@Override
 		public VirtualMachine provision() throws Exception {
+			return this.provision(null);
+		}
+		
+		// Provisions the virtual machine, ensuring the dependencies named explicitly only once across the batch, if any.
+		// Traced as a whole, with a span per step
+		private VirtualMachine provision(final SharedDependencies shared) throws Exception {
+			return SpanImpl.call(this.collection.azure().tracer(), "provision", new Callable<VirtualMachine>() {
+				@Override
+				public VirtualMachine call() throws Exception {
+					return provisionSteps(shared);
+				}
+			});
+		}
+		
+		private VirtualMachine provisionSteps(SharedDependencies shared) throws Exception {
+			// The dependencies only depend on the group and, for the NIC, on the network and public IP, so provision them concurrently
+			final TaskGraph graph = new TaskGraph(this.collection.azure().executor());
+			
+			// A new group is named after the virtual machine by default. Naming it up front keys the shared dependencies by the group they go in
+			this.groupName = this.groupNameOrDefault();
+			
 			// Ensure group
-			ResourceGroup group = this.ensureGroup();
+			final TaskGraph.Node<ResourceGroup> group = graph.add(SpanImpl.traced("ensureGroup", shareable(shared, "resourceGroups", null, this.groupName, new Callable<ResourceGroup>() {
+				@Override
+				public ResourceGroup call() throws Exception {
+					return ensureGroup();
+				}
+			})));
 			
 			// Ensure storage account
-			StorageAccount storageAccount = this.ensureStorageAccount(group.name()); // TODO Remove group refernce
+			final TaskGraph.Node<StorageAccount> storageAccount = graph.add(SpanImpl.traced("ensureStorageAccount", shareable(shared, "storageAccounts", this.groupName, this.storageAccountId, new Callable<StorageAccount>() {
+				@Override
+				public StorageAccount call() throws Exception {
+					return ensureStorageAccount(group.result().name()); // TODO Remove group refernce
+				}
+			})), group);
 
 			// Ensure virtual network
-			Network network = ensureNetwork();
+			final TaskGraph.Node<Network> network = graph.add(SpanImpl.traced("ensureNetwork", shareable(shared, "networks", this.groupName, this.networkId, new Callable<Network>() {
+				@Override
+				public Network call() throws Exception {
+					return ensureNetwork();
+				}
+			})), group);
 			
 			// Ensure subnet
-			Network.Subnet subnet = ensureSubnet(network);
+			final TaskGraph.Node<Network.Subnet> subnet = graph.add(SpanImpl.traced("ensureSubnet", new Callable<Network.Subnet>() {
+				@Override
+				public Network.Subnet call() throws Exception {
+					return ensureSubnet(network.result());
+				}
+			}), network);
 			
 			// Ensure public IP address
-			PublicIpAddress pip = ensurePublicIpAddress();
+			final TaskGraph.Node<PublicIpAddress> pip = graph.add(SpanImpl.traced("ensurePublicIpAddress", new Callable<PublicIpAddress>() {
+				@Override
+				public PublicIpAddress call() throws Exception {
+					return ensurePublicIpAddress();
+				}
+			}), group);
 			
 			// Ensure primary NIC
-			NetworkInterface nic = this.ensureNetworkInterface(group.name(), network, subnet, pip); // TODO Remove group reference
-			if(nic != null) {
-				this.withExistingNetworkInterface(nic);
-			}
+			final TaskGraph.Node<NetworkInterface> nic = graph.add(SpanImpl.traced("ensureNetworkInterface", new Callable<NetworkInterface>() {
+				@Override
+				public NetworkInterface call() throws Exception {
+					return ensureNetworkInterface(group.result().name(), network.result(), subnet.result(), pip.result()); // TODO Remove group reference
+				}
+			}), group, network, subnet, pip);
 			
 			// Ensure availability set (optional)
-			AvailabilitySet set = this.ensureAvailabilitySet(group.name()); //TODO Remove group refereence?
-			if(set != null) {
-				this.withExistingAvailabilitySet(set);
+			final TaskGraph.Node<AvailabilitySet> set = graph.add(SpanImpl.traced("ensureAvailabilitySet", shareable(shared, "availabilitySets", this.groupName, this.availabilitySetId, new Callable<AvailabilitySet>() {
+				@Override
+				public AvailabilitySet call() throws Exception {
+					return ensureAvailabilitySet(group.result().name()); //TODO Remove group refereence?
+				}
+			})), group);
+			
+			graph.run();
+			
+			if(nic.result() != null) {
+				this.withExistingNetworkInterface(nic.result());
+			}
+			
+			if(set.result() != null) {
+				this.withExistingAvailabilitySet(set.result());
 			}
 			
 			// Ensure default computer name
@@ -565,22 +703,30 @@ public class VirtualMachinesImpl
 			}
 			
 			// Ensure data disks
-			ensureDataDisks(storageAccount);
+			ensureDataDisks(storageAccount.result());
 			
-			URL container = new URL(storageAccount.primaryBlobEndpoint(), this.name() + "/");
+			URL container = new URL(storageAccount.result().primaryBlobEndpoint(), this.name() + "/");
 			URL diskBlob = new URL(container, "osDisk.vhd");
 			this.inner().getStorageProfile().getOSDisk().getVirtualHardDisk().setUri(diskBlob.toString());
 
-			this.collection.azure().computeManagementClient().getVirtualMachinesOperations().createOrUpdate(this.resourceGroup(), this.inner());
-			return get(this.groupName, this.name());
+			return SpanImpl.traced("createOrUpdate", new Callable<VirtualMachine>() {
+				@Override
+				public VirtualMachine call() throws Exception {
+					collection.azure().computeManagementClient().getVirtualMachinesOperations().createOrUpdate(resourceGroup(), inner());
+					return reload(groupName, name());
+				}
+			}).call();
+		}
+		
+		@Override
+		public Future<VirtualMachine> provisionAsync() {
+			return Async.provision(this.executor(), this);
 		}
 		
 		
 		@Override
 		public VirtualMachineImpl refresh() throws Exception {
-			this.setInner(getNativeEntity(
-				ResourcesImpl.groupFromResourceId(this.id()),
-				ResourcesImpl.nameFromResourceId(this.id())));
+			refreshEntity(this);
 			return this;
 		}
 		
@@ -588,7 +734,26 @@ public class VirtualMachinesImpl
 		/**************************************************
 		 * Helpers
 		 **************************************************/
-				
+		
+		// Wraps the task ensuring a dependency so that it runs only once per batch for all the virtual machines referring to it by the same name
+		// in the same resource group. Resource groups are not in a group themselves, so they are keyed by their name alone
+		private <T> Callable<T> shareable(final SharedDependencies shared, String kind, String groupName, String name, final Callable<T> task) {
+			if(shared == null || name == null) {
+				// Dependencies named after the virtual machine by default are not shared
+				return task;
+			}
+			
+			final String key = (groupName != null) 
+				? kind + "/" + groupName.toLowerCase() + "/" + name.toLowerCase() 
+				: kind + "/" + name.toLowerCase();
+			return new Callable<T>() {
+				@Override
+				public T call() throws Exception {
+					return shared.ensure(key, task);
+				}
+			};
+		}
+		
 		// Gets or creates if needed the specified storage account
 		private StorageAccount ensureStorageAccount(String groupName) throws Exception {
 			if(!this.isExistingStorageAccount) {
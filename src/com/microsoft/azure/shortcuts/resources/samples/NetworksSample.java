@@ -21,9 +21,11 @@
 package com.microsoft.azure.shortcuts.resources.samples;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 
+import com.microsoft.azure.shortcuts.common.Predicate;
 import com.microsoft.azure.shortcuts.resources.ResourceGroup;
 import com.microsoft.azure.shortcuts.resources.Network;
 import com.microsoft.azure.shortcuts.resources.Network.Subnet;
@@ -66,6 +68,14 @@ public class NetworksSample {
     	network = subscription.networks(network.resourceGroup(), network.name());
     	printNetwork(network);
     	
+    	// Cache the networks read from Azure for a minute, so that reading the same network again is served from memory
+    	subscription.withCache(100, 1, TimeUnit.MINUTES);
+    	network = subscription.networks(network.id());
+    	network = subscription.networks(network.id());
+    	System.out.println(String.format("Cache hits: %d, misses: %d", 
+    		subscription.cacheStatistics().hits(), subscription.cacheStatistics().misses()));
+    	subscription.withCache(0, 0, TimeUnit.MINUTES);
+    	
     	// Delete the network
     	subscription.networks().delete(network.id());
     	
@@ -83,6 +93,14 @@ public class NetworksSample {
     		.withSubnet("Bar", "10.0.0.8/29")
     		.provision();
     	
+    	// Wait for the network to finish provisioning
+    	network.waitUntil(new Predicate<Network>() {
+    		@Override
+    		public boolean test(Network network) {
+    			return "Succeeded".equalsIgnoreCase(network.provisioningState());
+    		}
+    	}, 5, TimeUnit.MINUTES);
+    	
     	printNetwork(network);
 
     	// Listing networks in a specific resource group
@@ -71,6 +71,10 @@ public class ProvidersSample {
     		// Get latest API version for a specific resource type - shortcut
     		System.out.println(String.format("\n\t\tLatest version for type %s: %s", resourceType, 
         		provider.resourceTypes(resourceType).latestApiVersion()));
+
+    		// Get latest API version for a specific resource type - cached by the subscription
+    		System.out.println(String.format("\n\t\tLatest version for type %s: %s", resourceType, 
+        		subscription.providers().latestApiVersion(provider.id(), resourceType)));
     	}
     }
 }
@@ -20,6 +20,7 @@
 
 package com.microsoft.azure.shortcuts.resources.samples;
 
+import java.util.Iterator;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
@@ -52,6 +53,11 @@ public class ResourcesSample {
     		printResource(resource);
     	}
     	
+    	// Listing all resources one page at a time, without holding all of them in memory
+    	for(Iterator<Resource> iterator = subscription.resources().asIterator(); iterator.hasNext();) {
+    		System.out.println(iterator.next().id());
+    	}
+    	
         // Getting information about a specific resource based on ID
     	Resource resource = subscription.resources("/subscriptions/9657ab5d-4a4a-4fd2-ae7a-4cd9fbd030ef/resourceGroups/javasampleresourcegroup/providers/Microsoft.Storage/storageAccounts/javastojzgsg");
     	printResource(resource);
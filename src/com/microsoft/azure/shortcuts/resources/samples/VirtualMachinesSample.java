@@ -20,10 +20,16 @@
 
 package com.microsoft.azure.shortcuts.resources.samples;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.microsoft.azure.shortcuts.common.Span;
+import com.microsoft.azure.shortcuts.common.Tracer;
 import com.microsoft.azure.shortcuts.resources.Region;
 import com.microsoft.azure.shortcuts.resources.Size;
 import com.microsoft.azure.shortcuts.resources.VirtualMachine;
@@ -42,6 +48,16 @@ public class VirtualMachinesSample {
     
 
     public static void test(Subscription subscription) throws Exception {
+    	// Printing the waterfall of each provisioning of a VM, showing which dependencies and calls to Azure took the longest
+    	subscription.withTracer(new Tracer() {
+    		@Override
+    		public void spanEnded(Span span) {
+    			if(span.parent() == null) {
+    				System.out.println(span.waterfall());
+    			}
+    		}
+    	});
+    	
     	// Creating a Windows VM
     	String deploymentId = String.valueOf(System.currentTimeMillis());
     	String groupName = "group" + deploymentId;
@@ -80,11 +96,39 @@ public class VirtualMachinesSample {
     		.withLatestImage("Canonical", "UbuntuServer", "14.04.3-LTS")
     		.withSize(Size.Type.BASIC_A1)
     		.provision();
+    	
+    	// Adding a batch of Linux VMs sharing the same group, VNet and storage account, ensured only once for the whole batch
+    	List<VirtualMachine.DefinitionProvisionable> batch = new ArrayList<>();
+    	for(int i = 0; i < 3; i++) {
+    		batch.add(subscription.virtualMachines().define("lx" + i + deploymentId)
+    			.withRegion(Region.US_WEST)
+    			.withExistingResourceGroup(groupName)
+    			.withExistingNetwork(subscription.networks(groupName, "net" + deploymentId))
+    			.withSubnet("subnet1")
+    			.withPrivateIpAddressDynamic()
+    			.withNewPublicIpAddress()
+    			.withAdminUsername("shortcuts")
+    			.withAdminPassword("Abcd.1234")
+    			.withLatestImage("Canonical", "UbuntuServer", "14.04.3-LTS")
+    			.withSize(Size.Type.BASIC_A1)
+    			.withNewStorageAccount("store" + deploymentId));
+    	}
+    	
+    	for(Future<VirtualMachine> result : subscription.virtualMachines().provisionBatch(batch, 2)) {
+    		try {
+    			printVM(result.get());
+    		} catch(ExecutionException e) {
+    			System.out.println("Failed to provision a VM: " + e.getCause().getMessage());
+    		}
+    	}
     	    	
     	// Listing vms in a specific group
     	Map<String, VirtualMachine> vmsInGroup = subscription.virtualMachines().asMap(groupName);
     	System.out.println(String.format("Virtual machines: \n\t%s", StringUtils.join(vmsInGroup.keySet(), "\n\t")));
     	
+    	// Refreshing many virtual machines at once
+    	subscription.virtualMachines().refreshAll(vms.values());
+    	
     	// Listing virtual machines as objects
     	String vmID = null;
     	for(VirtualMachine vm : vms.values()) {
@@ -29,4 +29,40 @@ public interface Networks extends
 	SupportsDeleting,
 	SupportsListingNames,
 	SupportsGetting<Network> {
+	
+	/**
+	 * Starts a batch of virtual network changes, which are submitted to Azure together as a single network configuration update
+	 * @return An empty batch
+	 */
+	Batch batch();
+	
+	// Virtual network changes accumulated locally until committed
+	public interface Batch {
+		/**
+		 * Adds a new virtual network to the batch
+		 * @param definition The definition of the network to create
+		 * @return The batch
+		 */
+		Batch withNewNetwork(Network.DefinitionProvisionable definition);
+		
+		/**
+		 * Adds to the batch the replacement of an existing virtual network with the one of the same name in the definition
+		 * @param definition The new definition of the network
+		 * @return The batch
+		 */
+		Batch withUpdatedNetwork(Network.DefinitionProvisionable definition);
+		
+		/**
+		 * Adds the deletion of a virtual network to the batch
+		 * @param name The name of the network to delete
+		 * @return The batch
+		 */
+		Batch withoutNetwork(String name);
+		
+		/**
+		 * Applies all the changes of the batch with a single network configuration update, the later changes to a network overriding the earlier ones
+		 * @throws Exception
+		 */
+		void commit() throws Exception;
+	}
 }
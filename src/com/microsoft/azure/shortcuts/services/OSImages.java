@@ -19,10 +19,12 @@
 */
 package com.microsoft.azure.shortcuts.services;
 
+import com.microsoft.azure.shortcuts.common.SupportsListingAsIterator;
 import com.microsoft.azure.shortcuts.common.SupportsListingAsMap;
 import com.microsoft.azure.shortcuts.common.SupportsGetting;
 
 public interface OSImages extends
 	SupportsListingAsMap<OSImage>,
+	SupportsListingAsIterator<OSImage>,
 	SupportsGetting<OSImage>  {
 }
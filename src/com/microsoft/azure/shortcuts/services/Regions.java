@@ -22,10 +22,12 @@ package com.microsoft.azure.shortcuts.services;
 import java.util.Map;
 
 import com.microsoft.azure.shortcuts.common.SupportsGetting;
+import com.microsoft.azure.shortcuts.common.SupportsListingAsIterator;
 import com.microsoft.azure.shortcuts.common.SupportsListingAsMap;
 
 public interface Regions extends
 	SupportsListingAsMap<Region>,
+	SupportsListingAsIterator<Region>,
 	SupportsGetting<Region> {
 
 	/**
@@ -21,6 +21,7 @@ package com.microsoft.azure.shortcuts.services;
 
 import com.microsoft.azure.shortcuts.common.SupportsCreating;
 import com.microsoft.azure.shortcuts.common.SupportsDeleting;
+import com.microsoft.azure.shortcuts.common.SupportsListingAsIterator;
 import com.microsoft.azure.shortcuts.common.SupportsListingAsMap;
 import com.microsoft.azure.shortcuts.common.SupportsGetting;
 import com.microsoft.azure.shortcuts.common.SupportsUpdating;
@@ -29,6 +30,7 @@ public interface StorageAccounts extends
 	SupportsCreating<StorageAccount.DefinitionBlank>, 
 	SupportsUpdating<StorageAccount.UpdateBlank>,
 	SupportsListingAsMap<StorageAccount>,
+	SupportsListingAsIterator<StorageAccount>,
 	SupportsGetting<StorageAccount>,
 	SupportsDeleting {
 }
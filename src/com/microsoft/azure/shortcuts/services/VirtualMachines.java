@@ -19,6 +19,9 @@
 */
 package com.microsoft.azure.shortcuts.services;
 
+import java.util.List;
+import java.util.Map;
+
 import com.microsoft.azure.shortcuts.common.SupportsCreating;
 import com.microsoft.azure.shortcuts.common.SupportsDeleting;
 import com.microsoft.azure.shortcuts.common.SupportsListingNames;
@@ -29,4 +32,32 @@ public interface VirtualMachines extends
 	SupportsGetting<VirtualMachine>,
 	SupportsListingNames,
 	SupportsDeleting {
+	
+	/**
+	 * Lists the names of the virtual machines, looking up the production deployments of the cloud services concurrently
+	 * @param maxConcurrency The maximum number of cloud services to look up at the same time, at least 1
+	 * @param listener Called with the name of each virtual machine as soon as the deployment it belongs to is returned, or null.
+	 * The exceptions it throws are ignored, so that they do not affect the listing
+	 * @return The names of the virtual machines found, along with the cloud services whose deployment could not be looked up
+	 * @throws Exception
+	 */
+	NameListing names(int maxConcurrency, NameListener listener) throws Exception;
+	
+	// Receives the names of the virtual machines as they are found, possibly from several threads at a time
+	public interface NameListener {
+		void onName(String name);
+	}
+	
+	// The outcome of listing the names of the virtual machines
+	public interface NameListing {
+		/**
+		 * @return The names of the virtual machines in the cloud services that could be looked up
+		 */
+		List<String> names();
+		
+		/**
+		 * @return The cause of the failure to look up the deployment of each cloud service that could not be looked up, by service name
+		 */
+		Map<String, Exception> errors();
+	}
 }
@@ -21,7 +21,14 @@
 package com.microsoft.azure.shortcuts.services.implementation;
 
 import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
+import com.microsoft.azure.shortcuts.common.Metrics;
+import com.microsoft.azure.shortcuts.common.RetryPolicy;
+import com.microsoft.azure.shortcuts.common.implementation.RetryAfterFilter;
+import com.microsoft.azure.shortcuts.common.implementation.RetryingProxy;
+import com.microsoft.azure.shortcuts.common.implementation.Utils;
 import com.microsoft.azure.shortcuts.services.CloudService;
 import com.microsoft.azure.shortcuts.services.CloudServices;
 import com.microsoft.azure.shortcuts.services.Network;
@@ -47,11 +54,15 @@ import com.microsoft.windowsazure.management.compute.ComputeManagementClient;
 import com.microsoft.windowsazure.management.compute.ComputeManagementService;
 
 public class Azure {
-	private Configuration configuration= null;
-	private ManagementClient management = null;
-	private ComputeManagementClient compute = null;
-	private StorageManagementClient storage = null;
-	private NetworkManagementClient networking = null;
+	private final Configuration configuration;
+	private final Object clientLock = new Object();
+	private volatile ManagementClient management = null;
+	private volatile ComputeManagementClient compute = null;
+	private volatile StorageManagementClient storage = null;
+	private volatile NetworkManagementClient networking = null;
+	private volatile Executor executor = null;
+	private final RetryPolicy retryPolicy = new RetryPolicy();
+	private final AtomicReference<Metrics> metrics = new AtomicReference<>(Metrics.NONE);
 	
 	private final RegionsImpl regions = new RegionsImpl(this);
 	private final SizesImpl sizes = new SizesImpl(this);
@@ -81,6 +92,32 @@ public class Azure {
 	 * Getters
 	 ******************************************************/
 	
+	// Returns the executor running the asynchronous verbs of the entities
+	public Executor executor() {
+		return (this.executor != null) ? this.executor : Utils.defaultExecutor();
+	}
+	
+	
+	// Sets the executor running the asynchronous verbs of the entities, or null for the shared default one
+	public Azure withExecutor(Executor executor) {
+		this.executor = executor;
+		return this;
+	}
+	
+	
+	// Returns the policy retrying the failed calls made through this client, which may be changed at any time
+	public RetryPolicy retryPolicy() {
+		return this.retryPolicy;
+	}
+	
+	
+	// Sets the metrics the calls made through this client are reported to, or null to stop reporting them
+	public Azure withMetrics(Metrics metrics) {
+		this.metrics.set((metrics != null) ? metrics : Metrics.NONE);
+		return this;
+	}
+	
+	
 	/**
 	 * @return The interface exposing functionality related to cloud services
 	 */
@@ -164,42 +201,104 @@ public class Azure {
 	}
 	
 	
-	// Returns the management client, creating it as needed
+	// The SDK clients that can be created ahead of their first use
+	public enum Client {
+		MANAGEMENT,
+		COMPUTE,
+		STORAGE,
+		NETWORK
+	}
+	
+	
+	// Creates the specified clients now rather than on first use, so that the first call on a hot path does not pay for their construction
+	public Azure warmUp(Client... clients) {
+		for(Client client : clients) {
+			switch(client) {
+			case MANAGEMENT:
+				this.managementClient();
+				break;
+			case COMPUTE:
+				this.computeManagementClient();
+				break;
+			case STORAGE:
+				this.storageManagementClient();
+				break;
+			case NETWORK:
+				this.networkManagementClient();
+				break;
+			}
+		}
+		return this;
+	}
+	
+	
+	// Creates all the clients now rather than on first use
+	public Azure warmUp() {
+		return this.warmUp(Client.values());
+	}
+	
+	
+	// Returns the management client, creating it once if needed, even when first used from several threads at a time.
+	// The calls of the clients are retried according to the retry policy, waiting at least as long as Azure asks to
 	ManagementClient managementClient() {
-		if(this.management == null) {
-			this.management = ManagementService.create(configuration);
+		ManagementClient client = this.management;
+		if(client == null) {
+			synchronized(this.clientLock) {
+				client = this.management;
+				if(client == null) {
+					this.management = client = RetryingProxy.wrap(ManagementService.create(configuration).withResponseFilterLast(RetryAfterFilter.INSTANCE), ManagementClient.class, this.retryPolicy, this.metrics);
+				}
+			}
 		}
 		
-		return this.management;
+		return client;
 	}
 	
 	
-	// Returns the compute management client, creating it as needed
+	// Returns the compute management client, creating it once if needed
 	ComputeManagementClient computeManagementClient() {
-		if(this.compute == null) {
-			this.compute = ComputeManagementService.create(configuration);
+		ComputeManagementClient client = this.compute;
+		if(client == null) {
+			synchronized(this.clientLock) {
+				client = this.compute;
+				if(client == null) {
+					this.compute = client = RetryingProxy.wrap(ComputeManagementService.create(configuration).withResponseFilterLast(RetryAfterFilter.INSTANCE), ComputeManagementClient.class, this.retryPolicy, this.metrics);
+				}
+			}
 		}
 		
-		return this.compute;
+		return client;
 	}
 	
 	
-	// Returns the storage management client, creating it as needed
+	// Returns the storage management client, creating it once if needed
 	StorageManagementClient storageManagementClient() {
-		if(this.storage == null) {
-			this.storage = StorageManagementService.create(configuration);
+		StorageManagementClient client = this.storage;
+		if(client == null) {
+			synchronized(this.clientLock) {
+				client = this.storage;
+				if(client == null) {
+					this.storage = client = RetryingProxy.wrap(StorageManagementService.create(configuration).withResponseFilterLast(RetryAfterFilter.INSTANCE), StorageManagementClient.class, this.retryPolicy, this.metrics);
+				}
+			}
 		}
 		
-		return this.storage;
+		return client;
 	}
 	
 	
-	// Returns the network management client, creating as needed
+	// Returns the network management client, creating it once if needed
 	NetworkManagementClient networkManagementClient() {
-		if(this.networking == null) {
-			this.networking = NetworkManagementService.create(configuration);
+		NetworkManagementClient client = this.networking;
+		if(client == null) {
+			synchronized(this.clientLock) {
+				client = this.networking;
+				if(client == null) {
+					this.networking = client = RetryingProxy.wrap(NetworkManagementService.create(configuration).withResponseFilterLast(RetryAfterFilter.INSTANCE), NetworkManagementClient.class, this.retryPolicy, this.metrics);
+				}
+			}
 		}
 		
-		return this.networking;
+		return client;
 	}
 }
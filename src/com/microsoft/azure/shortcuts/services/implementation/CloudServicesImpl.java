@@ -23,10 +23,15 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
-import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableRefreshableWrapperImpl;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator.Page;
 import com.microsoft.azure.shortcuts.services.CloudService;
 import com.microsoft.azure.shortcuts.services.CloudServices;
 import com.microsoft.azure.shortcuts.services.Region;
@@ -38,7 +43,7 @@ import com.microsoft.windowsazure.management.compute.models.HostedServicePropert
 
 // Class encapsulating the API related to cloud services
 public class CloudServicesImpl 
-	extends EntitiesImpl<Azure>
+	extends AsmEntitiesImpl
 	implements CloudServices {
 	
 	CloudServicesImpl(Azure azure) {
@@ -68,6 +73,11 @@ public class CloudServicesImpl
 	public CloudService get(String name) throws Exception {
 		return createCloudService(name).refresh();
 	}
+	
+	@Override
+	public Future<CloudService> getAsync(String name) {
+		return Async.get(this.executor(), this, name);
+	}
 
 	
 	@Override
@@ -79,6 +89,22 @@ public class CloudServicesImpl
 		}
 		
 		return Collections.unmodifiableMap(wrappers);
+	}
+	
+	@Override
+	public Iterator<CloudService> asIterator() throws Exception {
+		// ASM lists all the cloud services at once, so only the wrapping is incremental and there is no next page
+		return new PagedIterator<HostedService, CloudService>(getHostedServices()) {
+			@Override
+			protected Page<HostedService> nextPage(String nextLink) {
+				return new Page<>(null, null);
+			}
+			
+			@Override
+			protected CloudService wrap(HostedService nativeItem) {
+				return new CloudServiceImpl(nativeItem);
+			}
+		};
 	}	
 
 	
@@ -113,6 +139,11 @@ public class CloudServicesImpl
 		private CloudServiceImpl(HostedService azureService) {
 			super(azureService.getServiceName().toLowerCase(), azureService);
 		}
+		
+		@Override
+		protected Executor executor() {
+			return azure.executor();
+		}
 
 
 		/***********************************************************
@@ -207,6 +238,11 @@ public class CloudServicesImpl
 			azure.cloudServices().delete(this.id);
 		}
 		
+		@Override
+		public Future<Void> deleteAsync() {
+			return Async.delete(this.executor(), this);
+		}
+		
 		
 		@Override
 		public CloudServiceImpl provision() throws Exception {
@@ -221,6 +257,11 @@ public class CloudServicesImpl
 			azure.computeManagementClient().getHostedServicesOperations().create(params);			
 			return this;
 		}
+		
+		@Override
+		public Future<CloudService.UpdateBlank> provisionAsync() {
+			return Async.provision(this.executor(), this);
+		}
 
 		
 		@Override
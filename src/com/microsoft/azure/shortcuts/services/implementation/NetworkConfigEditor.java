@@ -0,0 +1,339 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.services.implementation;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.EndElement;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+// Edits the virtual network sites of a classic network configuration XML in a single streaming pass, without building a DOM.
+// Sites are removed by name, and new sites are appended to the VirtualNetworkSites element, which is created along with 
+// VirtualNetworkConfiguration if missing. Adding a site fails if a different site with the same name exists, while an identical one
+// is taken as the same edit applied before, so that rebasing the edits on a configuration that already has them does not duplicate sites
+class NetworkConfigEditor {
+	private static final String[] SITES_PATH = { "NetworkConfiguration", "VirtualNetworkConfiguration", "VirtualNetworkSites" };
+	private static final String SITE = "VirtualNetworkSite";
+	
+	// The factories are thread-safe once configured, so they are shared rather than created for every edit
+	private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+	private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+	private static final XMLEventFactory EVENT_FACTORY = XMLEventFactory.newInstance();
+	
+	private final HashSet<String> removals = new HashSet<>();
+	private final LinkedHashMap<String, String> additions = new LinkedHashMap<>();
+	
+	// The names of the added sites that may replace existing sites
+	private final HashSet<String> replacements = new HashSet<>();
+	
+	
+	// Removes the existing site with the name, along with any site with the name added to this editor before
+	NetworkConfigEditor remove(String name) {
+		this.additions.remove(name);
+		this.replacements.remove(name);
+		this.removals.add(name);
+		return this;
+	}
+	
+	// Appends the site described by the XML, which must not exist with another content unless removed by this editor before. 
+	// Any site with the name added to this editor before is dropped
+	NetworkConfigEditor add(String name, String siteXml) {
+		if(this.removals.remove(name)) {
+			this.replacements.add(name);
+		}
+		this.additions.put(name, siteXml);
+		return this;
+	}
+	
+	// Replaces the existing site with the name by the site described by the XML
+	NetworkConfigEditor replace(String name, String siteXml) {
+		this.removals.remove(name);
+		this.replacements.add(name);
+		this.additions.put(name, siteXml);
+		return this;
+	}
+	
+	boolean isEmpty() {
+		return this.removals.isEmpty() && this.additions.isEmpty();
+	}
+	
+	void clear() {
+		this.removals.clear();
+		this.additions.clear();
+		this.replacements.clear();
+	}
+	
+	
+	// Returns the network configuration with the edits applied, failing if it has no NetworkConfiguration element to add the sites to,
+	// or if an added site exists already with another content
+	String apply(String networkConfig) throws XMLStreamException {
+		this.checkAdditions(networkConfig);
+		
+		final StringWriter output = new StringWriter(networkConfig.length() + 512 * this.additions.size());
+		final XMLEventReader reader = INPUT_FACTORY.createXMLEventReader(new StringReader(networkConfig));
+		final XMLEventWriter writer = OUTPUT_FACTORY.createXMLEventWriter(output);
+		final ArrayDeque<StartElement> path = new ArrayDeque<>();
+		boolean additionsWritten = this.additions.isEmpty();
+		
+		try {
+			while(reader.hasNext()) {
+				XMLEvent event = reader.nextEvent();
+				if(event.isStartElement()) {
+					StartElement start = event.asStartElement();
+					if(path.size() == SITES_PATH.length && isSitesPath(path) && SITE.equals(start.getName().getLocalPart()) && this.isRemoved(start)) {
+						skipElement(reader);
+						continue;
+					}
+					path.push(start);
+				} else if(event.isEndElement()) {
+					EndElement end = event.asEndElement();
+					if(path.size() == SITES_PATH.length && isSitesPath(path)) {
+						// Append the new sites as the last children of VirtualNetworkSites
+						this.writeAdditions(writer, end.getName());
+						additionsWritten = true;
+					} else if(!additionsWritten && path.size() < SITES_PATH.length && isSitesPath(path)) {
+						// Create the missing elements down to VirtualNetworkSites if the configuration has no networks yet
+						this.writeAdditions(writer, end.getName(), path.size());
+						additionsWritten = true;
+					}
+					path.pop();
+				}
+				writer.add(event);
+			}
+			writer.flush();
+		} finally {
+			reader.close();
+			writer.close();
+		}
+		
+		if(!additionsWritten) {
+			throw new XMLStreamException("The network configuration has no NetworkConfiguration element to add the networks to");
+		}
+		return output.toString();
+	}
+	
+	
+	// Whether the configuration reflects the edits, i.e. has all the added sites with the content they were added with and none 
+	// of the removed ones, which tells if they survived concurrent writers
+	boolean isAppliedTo(String networkConfig) throws XMLStreamException {
+		final HashMap<String, String> sites = sites(networkConfig);
+		for(String removal : this.removals) {
+			if(sites.containsKey(removal)) {
+				return false;
+			}
+		}
+		
+		for(Map.Entry<String, String> addition : this.additions.entrySet()) {
+			if(!content(addition.getValue()).equals(sites.get(addition.getKey()))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	
+	// Fails if a site added without replacing exists with another content, as it would otherwise be overwritten
+	private void checkAdditions(String networkConfig) throws XMLStreamException {
+		HashMap<String, String> sites = null;
+		for(Map.Entry<String, String> addition : this.additions.entrySet()) {
+			if(this.replacements.contains(addition.getKey())) {
+				continue;
+			} else if(sites == null) {
+				sites = sites(networkConfig);
+			}
+			
+			final String existing = sites.get(addition.getKey());
+			if(existing != null && !existing.equals(content(addition.getValue()))) {
+				throw new IllegalArgumentException(String.format("A virtual network named '%s' already exists", addition.getKey()));
+			}
+		}
+	}
+	
+	// Returns the content of the sites of the configuration by name
+	private static HashMap<String, String> sites(String networkConfig) throws XMLStreamException {
+		final HashMap<String, String> sites = new HashMap<>();
+		final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(networkConfig));
+		try {
+			while(reader.hasNext()) {
+				if(reader.next() == XMLStreamConstants.START_ELEMENT && SITE.equals(reader.getLocalName())) {
+					sites.put(reader.getAttributeValue(null, "name"), content(reader));
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return sites;
+	}
+	
+	// Returns the content of the site described by the XML, as compared by content(XMLStreamReader)
+	private static String content(String siteXml) throws XMLStreamException {
+		final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(siteXml));
+		try {
+			while(reader.next() != XMLStreamConstants.START_ELEMENT) {
+			}
+			return content(reader);
+		} finally {
+			reader.close();
+		}
+	}
+	
+	// Returns the content of the element whose start was just read, up to its end, in a form independent of the formatting 
+	// and namespaces of the XML: the names of the elements, their attributes in order of name, and their trimmed text
+	private static String content(XMLStreamReader reader) throws XMLStreamException {
+		final StringBuilder content = new StringBuilder();
+		int depth = 0;
+		while(true) {
+			switch(reader.getEventType()) {
+			case XMLStreamConstants.START_ELEMENT:
+				depth++;
+				content.append('<').append(reader.getLocalName());
+				final TreeMap<String, String> attributes = new TreeMap<>();
+				for(int i = 0; i < reader.getAttributeCount(); i++) {
+					attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+				}
+				for(Map.Entry<String, String> attribute : attributes.entrySet()) {
+					content.append(' ').append(attribute.getKey()).append("=\"").append(attribute.getValue()).append('"');
+				}
+				content.append('>');
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				content.append("</").append(reader.getLocalName()).append('>');
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+				content.append(reader.getText().trim());
+				break;
+			default:
+				break;
+			}
+			
+			if(depth == 0) {
+				return content.toString();
+			}
+			reader.next();
+		}
+	}
+	
+	
+	// Whether the elements on the path, innermost first, are a prefix of the path to VirtualNetworkSites
+	private static boolean isSitesPath(ArrayDeque<StartElement> path) {
+		int i = path.size() - 1;
+		for(StartElement element : path) {
+			if(!SITES_PATH[i--].equals(element.getName().getLocalPart())) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	// Whether the existing site is dropped, either removed or replaced by an added site with the same name, which is identical unless
+	// replacing it was allowed
+	private boolean isRemoved(StartElement site) {
+		Attribute name = site.getAttributeByName(new QName("name"));
+		return name != null && (this.removals.contains(name.getValue()) || this.additions.containsKey(name.getValue()));
+	}
+	
+	// Skips the rest of the element whose start was just read
+	private static void skipElement(XMLEventReader reader) throws XMLStreamException {
+		int depth = 1;
+		while(depth > 0 && reader.hasNext()) {
+			XMLEvent event = reader.nextEvent();
+			if(event.isStartElement()) {
+				depth++;
+			} else if(event.isEndElement()) {
+				depth--;
+			}
+		}
+	}
+	
+	// Writes the new sites within the elements of the path to VirtualNetworkSites missing under the element at the depth
+	private void writeAdditions(XMLEventWriter writer, QName parent, int depth) throws XMLStreamException {
+		if(depth == SITES_PATH.length) {
+			this.writeAdditions(writer, parent);
+		} else {
+			final QName child = new QName(parent.getNamespaceURI(), SITES_PATH[depth], parent.getPrefix());
+			writer.add(EVENT_FACTORY.createStartElement(child, null, null));
+			this.writeAdditions(writer, child, depth + 1);
+			writer.add(EVENT_FACTORY.createEndElement(child, null));
+		}
+	}
+	
+	// Writes the new sites, moving their elements into the namespace of their VirtualNetworkSites parent
+	private void writeAdditions(XMLEventWriter writer, QName parent) throws XMLStreamException {
+		for(String siteXml : this.additions.values()) {
+			XMLEventReader reader = INPUT_FACTORY.createXMLEventReader(new StringReader(siteXml));
+			try {
+				while(reader.hasNext()) {
+					XMLEvent event = reader.nextEvent();
+					if(event.isStartElement()) {
+						StartElement start = event.asStartElement();
+						writer.add(EVENT_FACTORY.createStartElement(
+							new QName(parent.getNamespaceURI(), start.getName().getLocalPart(), parent.getPrefix()), 
+							attributes(start), 
+							null));
+					} else if(event.isEndElement()) {
+						writer.add(EVENT_FACTORY.createEndElement(new QName(parent.getNamespaceURI(), event.asEndElement().getName().getLocalPart(), parent.getPrefix()), null));
+					} else if(event.isCharacters()) {
+						writer.add(event);
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		}
+	}
+	
+	private static Iterator<Attribute> attributes(StartElement start) {
+		List<Attribute> attributes = new ArrayList<>();
+		for(Iterator<?> i = start.getAttributes(); i.hasNext();) {
+			attributes.add((Attribute) i.next());
+		}
+		return attributes.iterator();
+	}
+	
+	private static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		return factory;
+	}
+}
@@ -21,27 +21,34 @@ package com.microsoft.azure.shortcuts.services.implementation;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
 
-import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableImpl;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableRefreshableWrapperImpl;
-import com.microsoft.azure.shortcuts.common.implementation.Utils;
 import com.microsoft.azure.shortcuts.services.Network;
 import com.microsoft.azure.shortcuts.services.Networks;
 import com.microsoft.azure.shortcuts.services.Region;
+import com.microsoft.windowsazure.exception.ServiceException;
 import com.microsoft.windowsazure.management.network.models.NetworkSetConfigurationParameters;
 import com.microsoft.windowsazure.management.network.models.NetworkListResponse.AddressSpace;
 import com.microsoft.windowsazure.management.network.models.NetworkListResponse.VirtualNetworkSite;
 
 // Class encapsulating the API related to virtual networks
 public class NetworksImpl 
-	extends EntitiesImpl<Azure>
+	extends AsmEntitiesImpl
 	implements Networks {
 	
+	public static final int MAX_CONFIG_ATTEMPTS = 5;
+	public static final long CONFIG_RETRY_DELAY = 1000;
+	
 	NetworksImpl(Azure azure) {
 		super(azure);
 	}
@@ -53,6 +60,11 @@ public class NetworksImpl
 		return createVirtualNetworkWrapper(name).refresh();
 	}
 	
+	@Override
+	public Future<Network> getAsync(String name) {
+		return Async.get(this.executor(), this, name);
+	}
+	
 	
 	@Override
 	// Starts a new network definition
@@ -64,24 +76,14 @@ public class NetworksImpl
 	@Override
 	// Deletes the specified network
 	public void delete(String name) throws Exception {
-		//  XPath to the network XML to delete
-		final String xpath = String.format(
-				"/*[local-name()='NetworkConfiguration']"
-				+ "/*[local-name()='VirtualNetworkConfiguration']"
-				+ "/*[local-name()='VirtualNetworkSites']"
-				+ "/*[local-name()='VirtualNetworkSite' and @name='%s']", name);
-		
-		// Get current network configuration
-		String networkConfig = azure.networkManagementClient().getNetworksOperations().getConfiguration().getConfiguration();
-		
-		// Correct for garbage prefix in XML returned by Azure
-		networkConfig = networkConfig.substring(networkConfig.indexOf('<'));
-
-		// Delete the network from the config using the xpath
-		final String newConfig = Utils.deleteXMLElement(networkConfig, xpath);
-		
-		// Update the network configuration
-		updateNetworkConfig(newConfig);
+		updateNetworkConfig(new NetworkConfigEditor().remove(name));
+	}
+	
+	
+	@Override
+	// Starts a batch of network changes submitted together
+	public Networks.Batch batch() {
+		return new BatchImpl();
 	}
 	
 	
@@ -107,11 +109,48 @@ public class NetworksImpl
 	 * Helpers
 	 *******************************************************/
 	
-	// Requests a network configuration update based on the XML netconfig representation
-	private void updateNetworkConfig(String xml) throws Exception {
-		NetworkSetConfigurationParameters params = new NetworkSetConfigurationParameters();
-		params.setConfiguration(xml);
-		azure.networkManagementClient().getNetworksOperations().setConfiguration(params);
+	// Applies the edits to the current network configuration and submits the result with a single configuration update.
+	// Azure offers no conditional update of the configuration, so concurrent writers are detected by checking that the edits 
+	// are still there after the update, rebasing the edits on the latest configuration and retrying if not
+	private void updateNetworkConfig(NetworkConfigEditor editor) throws Exception {
+		if(editor.isEmpty()) {
+			return;
+		}
+		
+		String networkConfig = getNetworkConfig();
+		for(int attempt = 1; ; attempt++) {
+			final String newConfig = editor.apply(networkConfig);
+			try {
+				NetworkSetConfigurationParameters params = new NetworkSetConfigurationParameters();
+				params.setConfiguration(newConfig);
+				azure.networkManagementClient().getNetworksOperations().setConfiguration(params);
+			} catch(ServiceException e) {
+				// Azure rejects the update while another one is in progress
+				if(e.getHttpStatusCode() != 409 || attempt >= MAX_CONFIG_ATTEMPTS) {
+					throw e;
+				}
+			}
+			
+			if(editor.isAppliedTo(getNetworkConfig())) {
+				return;
+			} else if(attempt >= MAX_CONFIG_ATTEMPTS) {
+				throw new ConcurrentModificationException("The network configuration kept being changed by other writers");
+			}
+			
+			// Back off for a random time, so that conflicting writers do not retry in lockstep, then rebase the edits 
+			// on the configuration as the other writers left it
+			Thread.sleep(ThreadLocalRandom.current().nextLong(CONFIG_RETRY_DELAY * attempt, 2 * CONFIG_RETRY_DELAY * attempt));
+			networkConfig = getNetworkConfig();
+		}
+	}
+	
+	
+	// Returns the current network configuration XML
+	private String getNetworkConfig() throws Exception {
+		String networkConfig = azure.networkManagementClient().getNetworksOperations().getConfiguration().getConfiguration();
+		
+		// Correct for garbage prefix in XML returned by Azure
+		return networkConfig.substring(networkConfig.indexOf('<'));
 	}
 	
 	
@@ -142,6 +181,11 @@ public class NetworksImpl
 		public NetworkImpl(VirtualNetworkSite site) {
 			super(site.getName(), site);
 		}
+		
+		@Override
+		protected Executor executor() {
+			return azure.executor();
+		}
 
 
 		/***********************************************************
@@ -253,10 +297,23 @@ public class NetworksImpl
 		public void delete() throws Exception {
 			azure.networks().delete(this.id);
 		}
+		
+		@Override
+		public Future<Void> deleteAsync() {
+			return Async.delete(this.executor(), this);
+		}
 
 
 		@Override
 		public NetworkImpl provision() throws Exception {
+			// Add the new network to the configuration and submit it to Azure
+			updateNetworkConfig(new NetworkConfigEditor().add(this.id(), this.toXml()));
+			return this;
+		}
+		
+		
+		// Returns the network site description for the network configuration XML
+		private String toXml() throws Exception {
 			// If no subnets specified, create a default subnet containing the first CIDR of the network
 			if(this.inner().getSubnets().size() == 0) {
 				com.microsoft.windowsazure.management.network.models.NetworkListResponse.Subnet azureSubnet = 
@@ -291,30 +348,16 @@ public class NetworksImpl
 				+ "</VirtualNetworkSite>";
 			
 			// Create network site description based on the inputs and the template
-			final String networkDescription = networkTemplate
+			return networkTemplate
 				.replace("${name}", this.inner().getName())
 				.replace("${location}", this.region())
 				.replace("${addressSpace}", addressSpaceSection.toString())
 				.replace("${subnets}", subnetsSection.toString());
-			
-			// Get current network configuration
-			String networkConfig = azure.networkManagementClient().getNetworksOperations().getConfiguration().getConfiguration();
-			
-			// Correct for garbage prefix in XML returned by Azure
-			networkConfig = networkConfig.substring(networkConfig.indexOf('<'));
-			
-			// XPath to the parent of virtual networks in network configuration XML
-			final String parentXPath = "/*[local-name()='NetworkConfiguration']"
-				+ "/*[local-name()='VirtualNetworkConfiguration']"
-				+ "/*[local-name()='VirtualNetworkSites']";				
-
-			// Add the new network to the configuration
-			String newConfig = Utils.insertXMLElement(networkConfig, networkDescription, parentXPath);
-			
-			// Submit the new network config to Azure
-			updateNetworkConfig(newConfig);
-			
-			return this;
+		}
+		
+		@Override
+		public Future<Network.UpdateBlank> provisionAsync() {
+			return Async.provision(this.executor(), this);
 		}
 
 
@@ -332,5 +375,51 @@ public class NetworksImpl
 			throw new NoSuchElementException(String.format("Virtual network '%s' not found.", this.inner().getName()));
 		}
 	}
+	
+	
+	// Accumulates network changes, turning each definition into its XML right away so later changes to it do not affect the batch
+	private class BatchImpl implements Networks.Batch {
+		private final NetworkConfigEditor editor = new NetworkConfigEditor();
+		
+		@Override
+		public Networks.Batch withNewNetwork(Network.DefinitionProvisionable definition) {
+			NetworkImpl network = networkOf(definition);
+			this.editor.add(network.id(), toXml(network));
+			return this;
+		}
+		
+		@Override
+		public Networks.Batch withUpdatedNetwork(Network.DefinitionProvisionable definition) {
+			NetworkImpl network = networkOf(definition);
+			this.editor.replace(network.id(), toXml(network));
+			return this;
+		}
+		
+		@Override
+		public Networks.Batch withoutNetwork(String name) {
+			this.editor.remove(name);
+			return this;
+		}
+		
+		@Override
+		public void commit() throws Exception {
+			updateNetworkConfig(this.editor);
+			this.editor.clear();
+		}
+		
+		private NetworkImpl networkOf(Network.DefinitionProvisionable definition) {
+			if(!(definition instanceof NetworkImpl)) {
+				throw new IllegalArgumentException("Only the definitions created by define() can be added to a batch");
+			}
+			return (NetworkImpl) definition;
+		}
+		
+		private String toXml(NetworkImpl network) {
+			try {
+				return network.toXml();
+			} catch(Exception e) {
+				throw new IllegalArgumentException("Invalid network definition", e);
+			}
+		}
+	}
 }
-
@@ -25,12 +25,17 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
-import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableRefreshableWrapperImpl;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator.Page;
 import com.microsoft.azure.shortcuts.services.OSImage;
 import com.microsoft.azure.shortcuts.services.OSImages;
 import com.microsoft.windowsazure.management.compute.models.VirtualMachineOSImageGetResponse;
@@ -38,7 +43,7 @@ import com.microsoft.windowsazure.management.compute.models.VirtualMachineOSImag
 
 // Class encapsulating the API related to OS images
 public class OSImagesImpl 
-	extends EntitiesImpl<Azure>
+	extends AsmEntitiesImpl
 	implements OSImages {
 	
 	OSImagesImpl(Azure azure) {
@@ -50,6 +55,11 @@ public class OSImagesImpl
 	public OSImage get(String name) throws Exception {
 		return createOsImage(name).refresh();
 	}
+	
+	@Override
+	public Future<OSImage> getAsync(String name) {
+		return Async.get(this.executor(), this, name);
+	}
 
 	
 	@Override
@@ -69,6 +79,22 @@ public class OSImagesImpl
 		}
 		
 		return Collections.unmodifiableMap(wrappers);
+	}
+	
+	@Override
+	public Iterator<OSImage> asIterator() throws Exception {
+		// ASM lists all the OS images at once, so only the wrapping is incremental and there is no next page
+		return new PagedIterator<VirtualMachineOSImage, OSImage>(getOSImages()) {
+			@Override
+			protected Page<VirtualMachineOSImage> nextPage(String nextLink) {
+				return new Page<>(null, null);
+			}
+			
+			@Override
+			protected OSImage wrap(VirtualMachineOSImage nativeItem) {
+				return new OSImageImpl(nativeItem);
+			}
+		};
 	}	
 
 	
@@ -97,6 +123,11 @@ public class OSImagesImpl
 		private OSImageImpl(VirtualMachineOSImage osImage) {
 			super(osImage.getName(), osImage);
 		}
+		
+		@Override
+		protected Executor executor() {
+			return azure.executor();
+		}
 
 		
 		/***********************************************************
@@ -22,19 +22,24 @@ package com.microsoft.azure.shortcuts.services.implementation;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
-import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableRefreshableWrapperImpl;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator.Page;
 import com.microsoft.azure.shortcuts.services.Region;
 import com.microsoft.azure.shortcuts.services.Regions;
 import com.microsoft.windowsazure.management.models.LocationsListResponse.Location;
 
 // Class encapsulating the API related to locations
 public class RegionsImpl 
-	extends EntitiesImpl<Azure>
+	extends AsmEntitiesImpl
 	implements Regions {
 	
 	RegionsImpl(Azure azure) {
@@ -46,6 +51,22 @@ public class RegionsImpl
 		return this.list(null);
 	}
 	
+	@Override
+	public Iterator<Region> asIterator() throws Exception {
+		// ASM lists all the regions at once, so only the wrapping is incremental and there is no next page
+		return new PagedIterator<Location, Region>(getAzureLocations()) {
+			@Override
+			protected Page<Location> nextPage(String nextLink) {
+				return new Page<>(null, null);
+			}
+			
+			@Override
+			protected Region wrap(Location nativeItem) {
+				return new RegionImpl(nativeItem);
+			}
+		};
+	}
+	
 	@Override
 	public Map<String, Region> list(String serviceType) {
 		HashMap<String, Region> wrappers = new HashMap<>();
@@ -67,6 +88,11 @@ public class RegionsImpl
 	public Region get(String name) throws Exception {
 		return createRegion(name).refresh();
 	}
+	
+	@Override
+	public Future<Region> getAsync(String name) {
+		return Async.get(this.executor(), this, name);
+	}
 
 	
 	/***************************************************
@@ -95,6 +121,11 @@ public class RegionsImpl
 		private RegionImpl(Location azureLocation) {
 			super(azureLocation.getName(), azureLocation);
 		}
+		
+		@Override
+		protected Executor executor() {
+			return azure.executor();
+		}
 
 		
 		/**************************************************
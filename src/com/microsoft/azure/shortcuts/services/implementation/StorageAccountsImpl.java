@@ -24,11 +24,16 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
-import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableRefreshableWrapperImpl;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator;
+import com.microsoft.azure.shortcuts.common.implementation.PagedIterator.Page;
 import com.microsoft.azure.shortcuts.services.Region;
 import com.microsoft.azure.shortcuts.services.StorageAccount;
 import com.microsoft.azure.shortcuts.services.StorageAccounts;
@@ -42,7 +47,7 @@ import com.microsoft.windowsazure.management.storage.models.StorageAccountUpdate
 
 // Class encapsulating the API related to storage accounts
 public class StorageAccountsImpl 
-	extends EntitiesImpl<Azure>
+	extends AsmEntitiesImpl
 	implements StorageAccounts {
 	
 	StorageAccountsImpl(Azure azure) {
@@ -74,6 +79,11 @@ public class StorageAccountsImpl
 	public StorageAccountImpl get(String name) throws Exception {
 		return createStorageAccountWrapper(name).refresh();
 	}
+	
+	@Override
+	public Future<StorageAccount> getAsync(String name) {
+		return Async.get(this.executor(), this, name);
+	}
 
 
 	@Override
@@ -85,6 +95,22 @@ public class StorageAccountsImpl
 		}
 		
 		return Collections.unmodifiableMap(wrappers);
+	}
+	
+	@Override
+	public Iterator<StorageAccount> asIterator() throws Exception {
+		// ASM lists all the storage accounts at once, so only the wrapping is incremental and there is no next page
+		return new PagedIterator<com.microsoft.windowsazure.management.storage.models.StorageAccount, StorageAccount>(getAzureStorageAccounts()) {
+			@Override
+			protected Page<com.microsoft.windowsazure.management.storage.models.StorageAccount> nextPage(String nextLink) {
+				return new Page<>(null, null);
+			}
+			
+			@Override
+			protected StorageAccount wrap(com.microsoft.windowsazure.management.storage.models.StorageAccount nativeItem) {
+				return new StorageAccountImpl(nativeItem);
+			}
+		};
 	}		
 
 	
@@ -121,6 +147,11 @@ public class StorageAccountsImpl
 		public StorageAccountImpl(com.microsoft.windowsazure.management.storage.models.StorageAccount azureStorageAccount) {
 			super(azureStorageAccount.getName(), azureStorageAccount);
 		}
+		
+		@Override
+		protected Executor executor() {
+			return azure.executor();
+		}
 
 		/***********************************************************
 		 * Getters
@@ -240,6 +271,11 @@ public class StorageAccountsImpl
 			return this;
 		}
 		
+		@Override
+		public Future<StorageAccount.UpdateBlank> provisionAsync() {
+			return Async.provision(this.executor(), this);
+		}
+		
 	
 		@Override
 		public StorageAccountImpl apply() throws Exception {
@@ -256,6 +292,11 @@ public class StorageAccountsImpl
 		public void delete() throws Exception {
 			azure.storageAccounts().delete(this.id);
 		}
+		
+		@Override
+		public Future<Void> deleteAsync() {
+			return Async.delete(this.executor(), this);
+		}
 
 		
 		@Override
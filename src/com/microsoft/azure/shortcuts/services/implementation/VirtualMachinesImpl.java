@@ -25,13 +25,18 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.NotImplementedException;
 
-import com.microsoft.azure.shortcuts.common.implementation.EntitiesImpl;
+import com.microsoft.azure.shortcuts.common.implementation.Async;
+import com.microsoft.azure.shortcuts.common.implementation.BoundedExecutor;
 import com.microsoft.azure.shortcuts.common.implementation.IndexableRefreshableImpl;
 import com.microsoft.azure.shortcuts.services.CloudService;
 import com.microsoft.azure.shortcuts.services.Network;
@@ -51,6 +56,7 @@ import com.microsoft.windowsazure.management.compute.models.Role;
 import com.microsoft.windowsazure.management.compute.models.VirtualMachineCreateDeploymentParameters;
 import com.microsoft.windowsazure.management.compute.models.VirtualMachineCreateParameters;
 import com.microsoft.windowsazure.management.compute.models.VirtualMachineRoleType;
+import com.microsoft.windowsazure.exception.ServiceException;
 
 /**
  * Class encapsulating the API related to virtual networks
@@ -58,9 +64,11 @@ import com.microsoft.windowsazure.management.compute.models.VirtualMachineRoleTy
  * 
  */
 public class VirtualMachinesImpl 
-	extends EntitiesImpl<Azure>
+	extends AsmEntitiesImpl
 	implements VirtualMachines {	
 	
+	public static final int DEFAULT_LISTING_CONCURRENCY = 10;
+	
 	VirtualMachinesImpl(Azure azure) {
 		super(azure);
 	}
@@ -150,23 +158,91 @@ public class VirtualMachinesImpl
 	
 	@Override
 	public List<String> names() throws Exception {
-		Set<String> serviceNames = azure.cloudServices().asMap().keySet();
-		ArrayList<String> vms = new ArrayList<String>();
-		
-		// Find all virtual machine roles within cloud services 
-		for(String serviceName : serviceNames) {
-			try {
-				DeploymentGetResponse deployment = azure.computeManagementClient().getDeploymentsOperations().getBySlot(serviceName, DeploymentSlot.Production);
-				for(Role role : deployment.getRoles()) {
-					if(role.getRoleType().equalsIgnoreCase(VirtualMachineRoleType.PersistentVMRole.toString())) {
-						vms.add(serviceName + "." + role.getRoleName());
+		return this.names(DEFAULT_LISTING_CONCURRENCY, null).names();
+	}
+	
+	
+	@Override
+	public NameListing names(int maxConcurrency, final NameListener listener) throws Exception {
+		if(maxConcurrency < 1) {
+			throw new IllegalArgumentException("The maximum number of cloud services to look up at a time must be at least 1");
+		}
+		
+		final Executor executor = new BoundedExecutor(this.executor(), maxConcurrency);
+		final LinkedHashMap<String, Future<List<String>>> lookups = new LinkedHashMap<>();
+		
+		// Find all virtual machine roles within cloud services, looking up several cloud services at a time
+		for(final String serviceName : azure.cloudServices().asMap().keySet()) {
+			lookups.put(serviceName, Async.submit(executor, new Callable<List<String>>() {
+				@Override
+				public List<String> call() throws Exception {
+					List<String> names = getVmNames(serviceName);
+					if(listener != null) {
+						reportNames(listener, names);
 					}
+					return names;
 				}
-			} catch (Exception e) {
-				continue;
+			}));
+		}
+		
+		// Collect the names in the order of the cloud services, reporting the cloud services that failed rather than skipping them silently
+		final ArrayList<String> names = new ArrayList<>();
+		final HashMap<String, Exception> errors = new HashMap<>();
+		for(Map.Entry<String, Future<List<String>>> lookup : lookups.entrySet()) {
+			try {
+				names.addAll(lookup.getValue().get());
+			} catch(ExecutionException e) {
+				errors.put(lookup.getKey(), (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e);
+			}
+		}
+		
+		return new NameListing() {
+			@Override
+			public List<String> names() {
+				return Collections.unmodifiableList(names);
+			}
+
+			@Override
+			public Map<String, Exception> errors() {
+				return Collections.unmodifiableMap(errors);
+			}
+		};
+	}
+	
+	
+	// Tells the listener about the names found. The lookup succeeded whatever the listener does with them, so its failures are not
+	// reported as failures of the cloud service, nor keep it from being told about the other names
+	private static void reportNames(NameListener listener, List<String> names) {
+		for(String name : names) {
+			try {
+				listener.onName(name);
+			} catch(RuntimeException e) {
+				// Ignore the failure of the listener, the name is still part of the listing
+			}
+		}
+	}
+	
+	
+	// Returns the names of the virtual machines in the production deployment of the cloud service, if any
+	private List<String> getVmNames(String serviceName) throws Exception {
+		final DeploymentGetResponse deployment;
+		try {
+			deployment = azure.computeManagementClient().getDeploymentsOperations().getBySlot(serviceName, DeploymentSlot.Production);
+		} catch(ServiceException e) {
+			if(e.getHttpStatusCode() == 404) {
+				// Cloud services without a production deployment have no virtual machines
+				return Collections.emptyList();
+			} else {
+				throw e;
 			}
 		}
 		
+		ArrayList<String> vms = new ArrayList<String>();
+		for(Role role : deployment.getRoles()) {
+			if(role.getRoleType().equalsIgnoreCase(VirtualMachineRoleType.PersistentVMRole.toString())) {
+				vms.add(serviceName + "." + role.getRoleName());
+			}
+		}
 		return vms;
 	}
 
@@ -212,6 +288,11 @@ public class VirtualMachinesImpl
 	public VirtualMachine get(String name) throws Exception {
 		return new VirtualMachineImpl(name).refresh();
 	}
+	
+	@Override
+	public Future<VirtualMachine> getAsync(String name) {
+		return Async.get(this.executor(), this, name);
+	}
 
 
 	@Override
@@ -272,6 +353,11 @@ public class VirtualMachinesImpl
 			this.withHostName(defaultRoleName);
 		}
 		
+		@Override
+		protected Executor executor() {
+			return azure.executor();
+		}
+		
 		
 		/***********************************************************
 		 * Getters
@@ -630,6 +716,11 @@ public class VirtualMachinesImpl
 			azure.virtualMachines().delete(this.id);
 		}
 		
+		@Override
+		public Future<Void> deleteAsync() {
+			return Async.delete(this.executor(), this);
+		}
+		
 
 		@Override
 		public VirtualMachineImpl provision() throws Exception {
@@ -745,6 +836,11 @@ public class VirtualMachinesImpl
 			
 			return this;
 		}
+		
+		@Override
+		public Future<VirtualMachine.UpdateBlank> provisionAsync() {
+			return Async.provision(this.executor(), this);
+		}
 
 
 		@Override
@@ -42,11 +42,10 @@ public class CertificatesSample {
 
 	public static void test(Azure azure) throws Exception {
 		File pfxFile = new File(new File(System.getProperty("user.home"), "Desktop"), "test.pfx");
-		File jdkFilePath = new File(System.getenv("JAVA_HOME"));
 		File cerFile = new File(new File(System.getProperty("user.home"), "Desktop"), "test.cer");
 		String password = "Abcd.1234", alias = "test";
 		
-		Utils.createCertPkcs12(pfxFile, jdkFilePath, alias, password, alias, 3650);
-		Utils.createCertPublicFromPkcs12(pfxFile, cerFile, jdkFilePath, alias, password);
+		Utils.createCertPkcs12(pfxFile, alias, password, alias, 3650);
+		Utils.createCertPublicFromPkcs12(pfxFile, cerFile, alias, password);
 	}
 }
@@ -88,6 +88,25 @@ public class NetworksSample {
 		// Delete the newly created virtual network
 		System.out.println(String.format("Deleting virtual network named '%s'...", network.id()));
 		azure.networks().delete(network.id());
+		
+		// Create two networks with a single network configuration update
+		networkName = "net" + String.valueOf(System.currentTimeMillis());
+		System.out.println(String.format("Creating virtual networks named '%s1' and '%s2'...", networkName, networkName));
+		azure.networks().batch()
+			.withNewNetwork(azure.networks().define(networkName + "1")
+				.withRegion("West US")
+				.withAddressSpace("10.0.0.0/29"))
+			.withNewNetwork(azure.networks().define(networkName + "2")
+				.withRegion("West US")
+				.withAddressSpace("10.0.0.8/29"))
+			.commit();
+		
+		// Delete both networks with a single network configuration update
+		System.out.println(String.format("Deleting virtual networks named '%s1' and '%s2'...", networkName, networkName));
+		azure.networks().batch()
+			.withoutNetwork(networkName + "1")
+			.withoutNetwork(networkName + "2")
+			.commit();
 	}
 	
 	
@@ -24,6 +24,7 @@ import java.util.List;
 import org.apache.commons.lang.StringUtils;
 
 import com.microsoft.azure.shortcuts.services.VirtualMachine;
+import com.microsoft.azure.shortcuts.services.VirtualMachines;
 import com.microsoft.azure.shortcuts.services.implementation.Azure;
 
 //Tests Virtual Machines
@@ -49,6 +50,15 @@ public class VirtualMachinesSample {
 		// List virtual machines
 		List<String> vmNames = azure.virtualMachines().names();
 		System.out.println("Virtual machines:\n\t"+ StringUtils.join(vmNames, ",\n\t"));
+		
+		// List virtual machines looking up 20 cloud services at a time, printing each one as soon as it is found
+		VirtualMachines.NameListing listing = azure.virtualMachines().names(20, new VirtualMachines.NameListener() {
+			@Override
+			public void onName(String name) {
+				System.out.println("Found virtual machine: " + name);
+			}
+		});
+		System.out.println("Cloud services that could not be listed: " + StringUtils.join(listing.errors().keySet(), ", "));
 
 		// Create a Linux VM in a new service
 		final String vmName = "vm" + timeStamp;
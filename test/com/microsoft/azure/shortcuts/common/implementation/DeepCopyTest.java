@@ -0,0 +1,91 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+public class DeepCopyTest {
+	// A bean shaped like the native entities of the SDK
+	static class Entity {
+		private String name;
+		private Date created = new Date(0);
+		private ArrayList<Entity> children = new ArrayList<>();
+		private HashMap<String, String> tags = new HashMap<>();
+		private int[] ports = { 80, 443 };
+	}
+	
+	static class TrackedList<E> extends ArrayList<E> {
+		private static final long serialVersionUID = 1L;
+		private boolean initialized;
+	}
+	
+	@Test
+	public void copiesNestedBeansAndCollections() {
+		Entity entity = new Entity();
+		entity.name = "vm1";
+		entity.tags.put("env", "test");
+		Entity child = new Entity();
+		child.name = "disk1";
+		entity.children.add(child);
+		
+		Entity copy = DeepCopy.of(entity);
+		copy.tags.put("env", "prod");
+		copy.children.get(0).name = "disk2";
+		copy.created.setTime(1);
+		copy.ports[0] = 8080;
+		
+		assertNotSame(entity, copy);
+		assertSame(entity.name, copy.name);
+		assertEquals("test", entity.tags.get("env"));
+		assertEquals("disk1", entity.children.get(0).name);
+		assertEquals(0, entity.created.getTime());
+		assertEquals(80, entity.ports[0]);
+	}
+	
+	@Test
+	public void keepsTheClassAndStateOfCollections() {
+		TrackedList<String> list = new TrackedList<>();
+		list.initialized = true;
+		
+		TrackedList<String> copy = DeepCopy.of(list);
+		assertTrue(copy.initialized);
+		assertTrue(copy.isEmpty());
+	}
+	
+	@Test
+	public void keepsSharedReferencesShared() {
+		Entity entity = new Entity();
+		Entity child = new Entity();
+		entity.children.add(child);
+		entity.children.add(child);
+		
+		Entity copy = DeepCopy.of(entity);
+		assertSame(copy.children.get(0), copy.children.get(1));
+	}
+}
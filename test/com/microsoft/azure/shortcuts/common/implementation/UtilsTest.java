@@ -0,0 +1,49 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.common.implementation;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class UtilsTest {
+	@Test
+	public void base64PadsPartialGroups() {
+		assertEquals("", Utils.base64(new byte[0]));
+		assertEquals("Zg==", Utils.base64("f".getBytes(StandardCharsets.US_ASCII)));
+		assertEquals("Zm8=", Utils.base64("fo".getBytes(StandardCharsets.US_ASCII)));
+		assertEquals("Zm9v", Utils.base64("foo".getBytes(StandardCharsets.US_ASCII)));
+		assertEquals("Zm9vYmFy", Utils.base64("foobar".getBytes(StandardCharsets.US_ASCII)));
+	}
+	
+	@Test
+	public void base64EncodesAllByteValues() {
+		assertEquals("AP8Qf4A+/w==", Utils.base64(new byte[] { 0, (byte) 0xff, 0x10, 0x7f, (byte) 0x80, 0x3e, (byte) 0xff }));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void createCertsRejectsNamesLeavingTheDirectory() {
+		Utils.createCertsPkcs12(Utils.defaultExecutor(), new File("certs"), Arrays.asList("ok", "../escaped"), "password", 1);
+	}
+}
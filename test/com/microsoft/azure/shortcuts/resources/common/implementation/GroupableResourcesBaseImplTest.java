@@ -0,0 +1,119 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.resources.common.implementation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.microsoft.azure.shortcuts.common.implementation.EntityCache;
+import com.microsoft.azure.shortcuts.resources.implementation.Subscription;
+import com.microsoft.windowsazure.core.ResourceBaseExtended;
+
+public class GroupableResourcesBaseImplTest {
+	private static final String ID = 
+		"/subscriptions/9657ab5d-4a4a-4fd2-ae7a-4cd9fbd030ef/resourceGroups/group1/providers/Microsoft.Network/virtualNetworks/vnet1";
+	
+	static class Wrapper {
+		final ResourceBaseExtended inner;
+		
+		Wrapper(ResourceBaseExtended inner) {
+			this.inner = inner;
+		}
+	}
+	
+	// A collection whose reads from Azure block until released, so that concurrent gets share them
+	static class BlockingCollection extends GroupableResourcesBaseImpl<Wrapper, ResourceBaseExtended, Wrapper> {
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger reads = new AtomicInteger();
+		
+		BlockingCollection(Subscription subscription) {
+			super(subscription, new EntityCache());
+		}
+		
+		@Override
+		protected List<ResourceBaseExtended> getNativeEntities(String group) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		protected ResourceBaseExtended getNativeEntity(String group, String name) throws Exception {
+			this.reads.incrementAndGet();
+			this.release.await();
+			ResourceBaseExtended nativeItem = new ResourceBaseExtended();
+			nativeItem.setId(ID);
+			nativeItem.setName(name);
+			nativeItem.setLocation("westus");
+			return nativeItem;
+		}
+		
+		@Override
+		protected void deleteNativeEntity(String group, String name) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		protected Wrapper wrap(ResourceBaseExtended nativeItem) {
+			return new Wrapper(nativeItem);
+		}
+	}
+	
+	@Test
+	public void concurrentGetsDoNotShareTheirEntities() throws Exception {
+		final BlockingCollection collection = new BlockingCollection(
+			Subscription.connect("test", new URI("http://localhost/"), "token"));
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Callable<Wrapper> get = new Callable<Wrapper>() {
+				@Override
+				public Wrapper call() throws Exception {
+					return collection.get("group1", "vnet1");
+				}
+			};
+			Future<Wrapper> first = executor.submit(get);
+			Future<Wrapper> second = executor.submit(get);
+			
+			// Let both gets reach the read before it completes
+			Thread.sleep(200);
+			collection.release.countDown();
+			
+			Wrapper changed = first.get(10, TimeUnit.SECONDS);
+			Wrapper other = second.get(10, TimeUnit.SECONDS);
+			assertEquals(1, collection.reads.get());
+			assertNotSame(changed.inner, other.inner);
+			
+			changed.inner.setLocation("eastus");
+			assertEquals("westus", other.inner.getLocation());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,640 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.resources.implementation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ArrayNode;
+import org.codehaus.jackson.node.ObjectNode;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+// A local stand-in for Azure Resource Manager, keeping the resources PUT to it in memory and serving them back in the JSON shapes
+// of ARM, so that the resources layer can be exercised and load tested without Azure. Resource groups, resources of any provider
+// and type, provider metadata and long running operations are supported. The latency of each kind of call, how long the long running
+// operations take and the throttling of the calls can be configured to approximate Azure
+public class ArmStandIn {
+	// The kinds of calls, each with its own latency
+	public enum Call {
+		READ,
+		LIST,
+		WRITE,
+		DELETE
+	}
+	
+	private static final String[][] KNOWN_TYPES = {
+		{ "Microsoft.Compute", "virtualMachines", "availabilitySets", "locations/vmSizes" },
+		{ "Microsoft.Network", "virtualNetworks", "networkInterfaces", "publicIPAddresses", "loadBalancers", "networkSecurityGroups" },
+		{ "Microsoft.Storage", "storageAccounts" }
+	};
+	private static final String API_VERSION = "2015-06-15";
+	
+	// How long completed operations can still be polled, as the callers not waiting for them never poll them to completion
+	private static final long OPERATION_RETENTION = TimeUnit.MINUTES.toMillis(1);
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+	
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final String subscriptionId;
+	
+	// The resource groups and resources by lower case id, and the long running operations by id
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Operation> operations = new ConcurrentHashMap<>();
+	
+	private final Map<Call, Long> latencies = new EnumMap<>(Call.class);
+	private final ConcurrentHashMap<String, Long> typeLatencies = new ConcurrentHashMap<>();
+	private volatile long operationDelay = 0;
+	private volatile double throttlingRate = 0;
+	private volatile int retryAfter = 1;
+	private volatile int readsPerHour = RateLimiter.DEFAULT_READS_PER_HOUR;
+	private volatile int writesPerHour = RateLimiter.DEFAULT_WRITES_PER_HOUR;
+	private final AtomicInteger reads = new AtomicInteger();
+	private final AtomicInteger writes = new AtomicInteger();
+	private volatile long windowStart = System.currentTimeMillis();
+	
+	
+	// Starts a stand-in for the subscription on a free local port
+	public static ArmStandIn start(String subscriptionId) throws IOException {
+		return new ArmStandIn(subscriptionId);
+	}
+	
+	private ArmStandIn(String subscriptionId) throws IOException {
+		this.subscriptionId = subscriptionId;
+		this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "azure-shortcuts-arm-stand-in-" + this.count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.server.setExecutor(this.executor);
+		this.server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					ArmStandIn.this.handle(exchange);
+				} finally {
+					exchange.close();
+				}
+			}
+		});
+		this.server.start();
+	}
+	
+	
+	public void stop() {
+		this.server.stop(0);
+		this.executor.shutdownNow();
+	}
+	
+	
+	/***********************************************************
+	 * Getters
+	 ***********************************************************/
+	
+	// Returns the base URL to point the SDK clients at instead of https://management.azure.com/
+	public URI baseUri() {
+		return URI.create(String.format("http://%s:%d/", 
+			this.server.getAddress().getAddress().getHostAddress(), 
+			this.server.getAddress().getPort()));
+	}
+	
+	// Returns a subscription calling this stand-in
+	public Subscription subscription() throws Exception {
+		return Subscription.connect(this.subscriptionId, this.baseUri(), "stand-in");
+	}
+	
+	// Returns the number of resource groups and resources currently stored
+	public int size() {
+		return this.entries.size();
+	}
+	
+	
+	/***********************************************************
+	 * Setters
+	 ***********************************************************/
+	
+	// Delays every call of the kind by the specified time before answering it
+	public ArmStandIn withLatency(Call call, long latency, TimeUnit unit) {
+		synchronized(this.latencies) {
+			this.latencies.put(call, unit.toMillis(latency));
+		}
+		return this;
+	}
+	
+	// Delays every call of the kind to resources of the type, such as Microsoft.Compute/virtualMachines, by the specified time instead
+	public ArmStandIn withLatency(Call call, String resourceType, long latency, TimeUnit unit) {
+		this.typeLatencies.put(call + "|" + resourceType.toLowerCase(), unit.toMillis(latency));
+		return this;
+	}
+	
+	// Makes the creations, updates and deletions complete only after the specified time, reporting them in progress meanwhile
+	public ArmStandIn withOperationDelay(long delay, TimeUnit unit) {
+		this.operationDelay = unit.toMillis(delay);
+		return this;
+	}
+	
+	// Throttles the specified share of the calls at random, asking to retry after the specified number of seconds
+	public ArmStandIn withThrottling(double rate, int retryAfterSeconds) {
+		this.throttlingRate = rate;
+		this.retryAfter = retryAfterSeconds;
+		return this;
+	}
+	
+	// Throttles the calls beyond the specified hourly numbers of reads and writes, like Azure does
+	public ArmStandIn withRateLimits(int readsPerHour, int writesPerHour) {
+		this.readsPerHour = readsPerHour;
+		this.writesPerHour = writesPerHour;
+		return this;
+	}
+	
+	
+	/***********************************************************
+	 * Request handling
+	 ***********************************************************/
+	
+	private void handle(HttpExchange exchange) throws IOException {
+		final String method = exchange.getRequestMethod().toUpperCase();
+		final String path = trimSlashes(exchange.getRequestURI().getPath());
+		final String[] segments = path.split("/");
+		final boolean isRead = method.equals("GET") || method.equals("HEAD");
+		
+		// Count the call against the limits, as Azure counts it before answering
+		if(System.currentTimeMillis() - this.windowStart >= TimeUnit.HOURS.toMillis(1)) {
+			synchronized(this) {
+				if(System.currentTimeMillis() - this.windowStart >= TimeUnit.HOURS.toMillis(1)) {
+					this.windowStart = System.currentTimeMillis();
+					this.reads.set(0);
+					this.writes.set(0);
+				}
+			}
+		}
+		final int readCount = isRead ? this.reads.incrementAndGet() : this.reads.get();
+		final int writeCount = isRead ? this.writes.get() : this.writes.incrementAndGet();
+		exchange.getResponseHeaders().set("x-ms-ratelimit-remaining-subscription-reads", String.valueOf(Math.max(this.readsPerHour - readCount, 0)));
+		exchange.getResponseHeaders().set("x-ms-ratelimit-remaining-subscription-writes", String.valueOf(Math.max(this.writesPerHour - writeCount, 0)));
+		
+		final Call call = isRead ? (isCollection(segments) ? Call.LIST : Call.READ) : (method.equals("DELETE") ? Call.DELETE : Call.WRITE);
+		sleep(this.latencyOf(call, resourceType(segments)));
+		
+		if((isRead ? readCount > this.readsPerHour : writeCount > this.writesPerHour) 
+				|| (this.throttlingRate > 0 && ThreadLocalRandom.current().nextDouble() < this.throttlingRate)) {
+			exchange.getResponseHeaders().set("Retry-After", String.valueOf(this.retryAfter));
+			sendError(exchange, 429, "TooManyRequests", "The request was throttled by the stand-in");
+			return;
+		}
+		
+		if(segments.length == 2 && (segments[0].equalsIgnoreCase("operations") || segments[0].equalsIgnoreCase("operationresults"))) {
+			this.handleOperation(exchange, segments[0].equalsIgnoreCase("operations"), segments[1]);
+		} else if(segments.length < 2 || !segments[0].equalsIgnoreCase("subscriptions") || !segments[1].equalsIgnoreCase(this.subscriptionId)) {
+			sendError(exchange, 404, "SubscriptionNotFound", "Unknown subscription");
+		} else if(method.equals("POST")) {
+			this.handleAction(exchange, segments);
+		} else if(segments.length >= 3 && segments[2].equalsIgnoreCase("providers") 
+				&& (!isResourcePath(segments) || segments[segments.length - 1].equalsIgnoreCase("vmSizes"))) {
+			this.handleProviders(exchange, segments);
+		} else if(isCollection(segments)) {
+			this.handleList(exchange, path);
+		} else if(method.equals("GET") || method.equals("HEAD")) {
+			Entry entry = this.find(path);
+			if(entry == null) {
+				sendError(exchange, 404, "ResourceNotFound", String.format("'%s' was not found", path));
+			} else if(method.equals("HEAD")) {
+				exchange.sendResponseHeaders(204, -1);
+			} else {
+				send(exchange, 200, entry.body());
+			}
+		} else if(method.equals("PUT") || method.equals("PATCH")) {
+			this.handlePut(exchange, path, segments);
+		} else if(method.equals("DELETE")) {
+			this.handleDelete(exchange, path, segments);
+		} else {
+			sendError(exchange, 405, "MethodNotAllowed", method);
+		}
+	}
+	
+	
+	private void handlePut(HttpExchange exchange, String path, String[] segments) throws IOException {
+		ObjectNode body;
+		try(InputStream input = exchange.getRequestBody()) {
+			JsonNode json = MAPPER.readTree(input);
+			body = (json instanceof ObjectNode) ? (ObjectNode) json : MAPPER.createObjectNode();
+		}
+		
+		final String id = "/" + path;
+		final String name = segments[segments.length - 1];
+		body.put("id", id);
+		body.put("name", name);
+		if(isResourcePath(segments)) {
+			body.put("type", resourceType(segments));
+		}
+		
+		// Fill in what Azure computes
+		ObjectNode properties = (body.get("properties") instanceof ObjectNode) ? (ObjectNode) body.get("properties") : body.putObject("properties");
+		properties.put("provisioningState", (this.operationDelay > 0) ? "Updating" : "Succeeded");
+		assignChildIds(id, properties);
+		if("Microsoft.Storage/storageAccounts".equalsIgnoreCase(resourceType(segments))) {
+			ObjectNode endpoints = properties.putObject("primaryEndpoints");
+			for(String service : new String[] { "blob", "queue", "table" }) {
+				endpoints.put(service, String.format("https://%s.%s.core.windows.net/", name.toLowerCase(), service));
+			}
+		}
+		
+		final long completedAt = System.currentTimeMillis() + this.operationDelay;
+		final Entry entry = new Entry(body, completedAt);
+		final Entry previous = this.entries.put(path.toLowerCase(), entry);
+		this.sendAccepted(exchange, (previous == null || previous.isDeleted()) ? 201 : 200, entry, completedAt);
+	}
+	
+	
+	private void handleDelete(HttpExchange exchange, String path, String[] segments) throws IOException {
+		final long completedAt = System.currentTimeMillis() + this.operationDelay;
+		final String key = path.toLowerCase();
+		Entry entry = this.find(path);
+		if(entry == null) {
+			exchange.sendResponseHeaders(204, -1);
+			return;
+		}
+		
+		// Deleting a group deletes its resources too
+		for(Map.Entry<String, Entry> other : this.entries.entrySet()) {
+			if(other.getKey().equals(key) || other.getKey().startsWith(key + "/")) {
+				other.getValue().delete(completedAt);
+			}
+		}
+		this.sendAccepted(exchange, 202, null, completedAt);
+	}
+	
+	
+	// Answers a creation, update or deletion, along with the long running operation to poll for its completion
+	private void sendAccepted(HttpExchange exchange, int status, Entry entry, long completedAt) throws IOException {
+		final long now = System.currentTimeMillis();
+		for(Iterator<Operation> operations = this.operations.values().iterator(); operations.hasNext(); ) {
+			if(operations.next().completedAt + OPERATION_RETENTION < now) {
+				operations.remove();
+			}
+		}
+		
+		final String operationId = UUID.randomUUID().toString();
+		this.operations.put(operationId, new Operation(entry, completedAt));
+		exchange.getResponseHeaders().set("Azure-AsyncOperation", this.baseUri() + "operations/" + operationId);
+		exchange.getResponseHeaders().set("Location", this.baseUri() + "operationresults/" + operationId);
+		exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds(completedAt)));
+		if(entry != null) {
+			send(exchange, status, entry.body());
+		} else {
+			exchange.sendResponseHeaders(status, -1);
+		}
+	}
+	
+	
+	private void handleOperation(HttpExchange exchange, boolean asStatus, String operationId) throws IOException {
+		Operation operation = this.operations.get(operationId);
+		if(operation == null) {
+			sendError(exchange, 404, "OperationNotFound", operationId);
+			return;
+		}
+		
+		final boolean isDone = System.currentTimeMillis() >= operation.completedAt;
+		if(isDone) {
+			this.operations.remove(operationId);
+		} else {
+			exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds(operation.completedAt)));
+		}
+		
+		if(asStatus) {
+			// Azure-AsyncOperation style: always 200, the status telling the progress
+			ObjectNode status = MAPPER.createObjectNode();
+			status.put("status", isDone ? "Succeeded" : "InProgress");
+			send(exchange, 200, status);
+		} else if(!isDone) {
+			// Location style: 202 until done, then the outcome
+			exchange.sendResponseHeaders(202, -1);
+		} else if(operation.entry != null) {
+			send(exchange, 200, operation.entry.body());
+		} else {
+			exchange.sendResponseHeaders(204, -1);
+		}
+	}
+	
+	
+	private void handleAction(HttpExchange exchange, String[] segments) throws IOException {
+		final String action = segments[segments.length - 1];
+		if(action.equalsIgnoreCase("checkNameAvailability")) {
+			JsonNode request;
+			try(InputStream input = exchange.getRequestBody()) {
+				request = MAPPER.readTree(input);
+			}
+			
+			String name = (request != null && request.get("name") != null) ? request.get("name").getTextValue() : "";
+			boolean isAvailable = true;
+			for(Entry entry : this.entries.values()) {
+				if(!entry.isDeleted() && name.equalsIgnoreCase(entry.body.get("name").getTextValue())) {
+					isAvailable = false;
+					break;
+				}
+			}
+			
+			ObjectNode result = MAPPER.createObjectNode();
+			result.put("nameAvailable", isAvailable);
+			send(exchange, 200, result);
+		} else {
+			// Actions such as starting or restarting a virtual machine are long running operations without outcome
+			this.sendAccepted(exchange, 202, null, System.currentTimeMillis() + this.operationDelay);
+		}
+	}
+	
+	
+	private void handleProviders(HttpExchange exchange, String[] segments) throws IOException {
+		if(segments.length == 3) {
+			ObjectNode result = MAPPER.createObjectNode();
+			ArrayNode value = result.putArray("value");
+			for(String[] provider : KNOWN_TYPES) {
+				value.add(this.provider(provider));
+			}
+			send(exchange, 200, result);
+		} else if(segments.length == 4) {
+			for(String[] provider : KNOWN_TYPES) {
+				if(provider[0].equalsIgnoreCase(segments[3])) {
+					send(exchange, 200, this.provider(provider));
+					return;
+				}
+			}
+			send(exchange, 200, this.provider(new String[] { segments[3] }));
+		} else if(segments[segments.length - 1].equalsIgnoreCase("vmSizes")) {
+			ObjectNode result = MAPPER.createObjectNode();
+			ArrayNode value = result.putArray("value");
+			for(Object[] size : new Object[][] { { "Standard_A1", 1, 1792 }, { "Standard_A2", 2, 3584 }, { "Standard_D1", 1, 3584 } }) {
+				ObjectNode vmSize = value.addObject();
+				vmSize.put("name", (String) size[0]);
+				vmSize.put("numberOfCores", (Integer) size[1]);
+				vmSize.put("memoryInMB", (Integer) size[2]);
+				vmSize.put("maxDataDiskCount", 2 * (Integer) size[1]);
+			}
+			send(exchange, 200, result);
+		} else {
+			sendError(exchange, 404, "NotFound", "Not supported by the stand-in");
+		}
+	}
+	
+	
+	private ObjectNode provider(String[] provider) {
+		ObjectNode result = MAPPER.createObjectNode();
+		result.put("id", String.format("/subscriptions/%s/providers/%s", this.subscriptionId, provider[0]));
+		result.put("namespace", provider[0]);
+		result.put("registrationState", "Registered");
+		ArrayNode resourceTypes = result.putArray("resourceTypes");
+		for(int i = 1; i < provider.length; i++) {
+			ObjectNode resourceType = resourceTypes.addObject();
+			resourceType.put("resourceType", provider[i]);
+			resourceType.putArray("apiVersions").add(API_VERSION);
+		}
+		return result;
+	}
+	
+	
+	// Lists the groups, the resources of a group, or the resources of a type in a group or in the whole subscription
+	private void handleList(HttpExchange exchange, String path) throws IOException {
+		final String collection = path.toLowerCase();
+		final boolean isGroupless = !collection.contains("/resourcegroups/");
+		final boolean isGenericListing = collection.endsWith("/resources");
+		ObjectNode result = MAPPER.createObjectNode();
+		ArrayNode value = result.putArray("value");
+		for(Iterator<Map.Entry<String, Entry>> iterator = this.entries.entrySet().iterator(); iterator.hasNext(); ) {
+			Map.Entry<String, Entry> entry = iterator.next();
+			if(entry.getValue().isDeleted()) {
+				iterator.remove();
+				continue;
+			}
+			
+			String key = entry.getKey();
+			String parent = key.substring(0, key.lastIndexOf('/'));
+			boolean isListed;
+			if(collection.endsWith("/resourcegroups")) {
+				isListed = parent.equals(collection);
+			} else if(isGenericListing) {
+				String scope = collection.substring(0, collection.length() - "/resources".length());
+				isListed = key.startsWith(scope + "/") && key.contains("/providers/");
+			} else if(isGroupless) {
+				isListed = parent.replaceFirst("/resourcegroups/[^/]+", "").equals(collection) && key.contains("/providers/");
+			} else {
+				isListed = parent.equals(collection);
+			}
+			
+			if(isListed) {
+				value.add(entry.getValue().body());
+			}
+		}
+		send(exchange, 200, result);
+	}
+	
+	
+	/***********************************************************
+	 * Helpers
+	 ***********************************************************/
+	
+	private Entry find(String path) {
+		Entry entry = this.entries.get(path.toLowerCase());
+		return (entry == null || entry.isDeleted()) ? null : entry;
+	}
+	
+	private long latencyOf(Call call, String resourceType) {
+		Long latency = (resourceType != null) ? this.typeLatencies.get(call + "|" + resourceType.toLowerCase()) : null;
+		if(latency == null) {
+			synchronized(this.latencies) {
+				latency = this.latencies.get(call);
+			}
+		}
+		return (latency != null) ? latency : 0;
+	}
+	
+	private static int retryAfterSeconds(long completedAt) {
+		long remaining = completedAt - System.currentTimeMillis();
+		return (remaining <= 0) ? 0 : (int) Math.max(TimeUnit.MILLISECONDS.toSeconds(remaining), 1);
+	}
+	
+	// Whether the path is under a resource provider, like subscriptions/s/resourceGroups/g/providers/Microsoft.Network/virtualNetworks/n
+	private static boolean isResourcePath(String[] segments) {
+		return providerIndex(segments) >= 0 && segments.length > providerIndex(segments) + 2;
+	}
+	
+	private static int providerIndex(String[] segments) {
+		for(int i = 2; i < segments.length - 1; i++) {
+			if(segments[i].equalsIgnoreCase("providers")) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	// Returns the type of the resource or resource collection, such as Microsoft.Network/virtualNetworks/subnets
+	private static String resourceType(String[] segments) {
+		final int providerIndex = providerIndex(segments);
+		if(providerIndex < 0 || segments.length < providerIndex + 3) {
+			return null;
+		}
+		
+		StringBuilder type = new StringBuilder(segments[providerIndex + 1]);
+		for(int i = providerIndex + 2; i < segments.length; i += 2) {
+			type.append('/').append(segments[i]);
+		}
+		return type.toString();
+	}
+	
+	// Whether the path is that of a listing rather than of a single entity
+	private static boolean isCollection(String[] segments) {
+		final int providerIndex = providerIndex(segments);
+		if(segments[segments.length - 1].equalsIgnoreCase("resources")) {
+			return true;
+		} else if(providerIndex >= 0) {
+			return (segments.length - providerIndex) % 2 == 1 && segments.length > providerIndex + 2;
+		} else {
+			// subscriptions/s/resourcegroups
+			return segments.length == 3 && segments[2].equalsIgnoreCase("resourcegroups");
+		}
+	}
+	
+	// Gives the named child resources, such as subnets, an id as Azure does
+	private static void assignChildIds(String parentId, ObjectNode properties) {
+		Iterator<Map.Entry<String, JsonNode>> fields = properties.getFields();
+		while(fields.hasNext()) {
+			Map.Entry<String, JsonNode> field = fields.next();
+			if(!field.getValue().isArray()) {
+				continue;
+			}
+			
+			for(JsonNode child : field.getValue()) {
+				if(child instanceof ObjectNode && child.get("name") != null && child.get("id") == null) {
+					((ObjectNode) child).put("id", parentId + "/" + field.getKey() + "/" + child.get("name").getTextValue());
+				}
+			}
+		}
+	}
+	
+	private static String trimSlashes(String path) {
+		int start = 0, end = path.length();
+		while(start < end && path.charAt(start) == '/') {
+			start++;
+		}
+		while(end > start && path.charAt(end - 1) == '/') {
+			end--;
+		}
+		return path.substring(start, end);
+	}
+	
+	private static void sleep(long millis) {
+		if(millis > 0) {
+			try {
+				Thread.sleep(millis);
+			} catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+	
+	private static void send(HttpExchange exchange, int status, JsonNode body) throws IOException {
+		byte[] bytes = MAPPER.writeValueAsBytes(body);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		if(exchange.getRequestMethod().equalsIgnoreCase("HEAD")) {
+			exchange.sendResponseHeaders(status, -1);
+			return;
+		}
+		
+		exchange.sendResponseHeaders(status, bytes.length);
+		try(OutputStream output = exchange.getResponseBody()) {
+			output.write(bytes);
+		}
+	}
+	
+	private static void sendError(HttpExchange exchange, int status, String code, String message) throws IOException {
+		ObjectNode body = MAPPER.createObjectNode();
+		ObjectNode error = body.putObject("error");
+		error.put("code", code);
+		error.put("message", message);
+		send(exchange, status, body);
+	}
+	
+	
+	// A resource group or resource, whose provisioning completes at a given time
+	private static class Entry {
+		private final ObjectNode body;
+		private final long completedAt;
+		private volatile long deletedAt = Long.MAX_VALUE;
+		
+		Entry(ObjectNode body, long completedAt) {
+			this.body = body;
+			this.completedAt = completedAt;
+		}
+		
+		// Returns a copy of the entity as it currently is
+		synchronized ObjectNode body() {
+			ObjectNode properties = (ObjectNode) this.body.get("properties");
+			if(this.deletedAt != Long.MAX_VALUE) {
+				properties.put("provisioningState", "Deleting");
+			} else if(System.currentTimeMillis() >= this.completedAt) {
+				properties.put("provisioningState", "Succeeded");
+			}
+			return this.body.deepCopy();
+		}
+		
+		void delete(long deletedAt) {
+			this.deletedAt = Math.min(this.deletedAt, deletedAt);
+		}
+		
+		boolean isDeleted() {
+			return System.currentTimeMillis() >= this.deletedAt;
+		}
+	}
+	
+	
+	// A long running operation, completing at a given time with the entity it creates or updates if any
+	private static class Operation {
+		private final Entry entry;
+		private final long completedAt;
+		
+		Operation(Entry entry, long completedAt) {
+			this.entry = entry;
+			this.completedAt = completedAt;
+		}
+	}
+}
@@ -0,0 +1,70 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.resources.implementation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.microsoft.azure.shortcuts.resources.Region;
+import com.microsoft.azure.shortcuts.resources.Size;
+import com.microsoft.azure.shortcuts.resources.VirtualMachine;
+
+public class VirtualMachinesBatchTest {
+	private static VirtualMachine.DefinitionProvisionable define(Subscription subscription, String name) {
+		return subscription.virtualMachines().define(name)
+			.withRegion(Region.US_WEST)
+			.withNewResourceGroup()
+			.withNewNetwork("sharednet", "10.0.0.0/28")
+			.withPrivateIpAddressDynamic()
+			.withNewPublicIpAddress()
+			.withAdminUsername("shortcuts")
+			.withAdminPassword("Abcd.1234")
+			.withImage("Canonical", "UbuntuServer", "14.04.3-LTS", "14.04.201602171")
+			.withSize(Size.Type.BASIC_A1)
+			.withNewStorageAccount(name + "store");
+	}
+	
+	@Test
+	public void dependenciesInDefaultGroupsAreNotShared() throws Exception {
+		ArmStandIn arm = ArmStandIn.start("00000000-0000-0000-0000-000000000000");
+		try {
+			Subscription subscription = arm.subscription();
+			List<Future<VirtualMachine>> vms = subscription.virtualMachines().provisionBatch(
+				Arrays.asList(define(subscription, "vma"), define(subscription, "vmb")), 2);
+			for(Future<VirtualMachine> vm : vms) {
+				vm.get();
+			}
+			
+			// Each virtual machine got the network of the same name in its own default group
+			assertNotNull(subscription.networks("vmagroup", "sharednet"));
+			assertNotNull(subscription.networks("vmbgroup", "sharednet"));
+			assertEquals("vmagroup", subscription.virtualMachines("vmagroup", "vma").resourceGroup());
+			assertEquals("vmbgroup", subscription.virtualMachines("vmbgroup", "vmb").resourceGroup());
+		} finally {
+			arm.stop();
+		}
+	}
+}
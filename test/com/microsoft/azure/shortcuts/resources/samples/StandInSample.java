@@ -0,0 +1,92 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.resources.samples;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.microsoft.azure.shortcuts.resources.Network;
+import com.microsoft.azure.shortcuts.resources.Region;
+import com.microsoft.azure.shortcuts.resources.implementation.ArmStandIn;
+import com.microsoft.azure.shortcuts.resources.implementation.ArmStandIn.Call;
+import com.microsoft.azure.shortcuts.resources.implementation.Subscription;
+
+// Load tests the provisioning of networks against a local stand-in for Azure Resource Manager, without an Azure subscription
+public class StandInSample {
+    public static void main(String[] args) {
+        ArmStandIn arm = null;
+        try {
+        	// Approximate Azure: slow writes, long running operations taking a few seconds, and occasional throttling
+        	arm = ArmStandIn.start("00000000-0000-0000-0000-000000000000")
+        		.withLatency(Call.READ, 50, TimeUnit.MILLISECONDS)
+        		.withLatency(Call.LIST, 200, TimeUnit.MILLISECONDS)
+        		.withLatency(Call.WRITE, 500, TimeUnit.MILLISECONDS)
+        		.withOperationDelay(3, TimeUnit.SECONDS)
+        		.withThrottling(0.01, 1);
+        	
+            test(arm.subscription(), 100);
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+        	if(arm != null) {
+        		arm.stop();
+        	}
+        }
+    }
+    
+
+    public static void test(Subscription subscription, int count) throws Exception {
+    	subscription.resourceGroups().define("standingroup")
+    		.withRegion(Region.US_WEST)
+    		.provision();
+    	
+    	// Provision the networks concurrently
+    	long start = System.currentTimeMillis();
+    	List<Future<Network>> networks = new ArrayList<>();
+    	for(int i = 0; i < count; i++) {
+    		networks.add(subscription.networks().define("standinnet" + i)
+    			.withRegion(Region.US_WEST)
+    			.withExistingResourceGroup("standingroup")
+    			.withAddressSpace("10.0.0.0/28")
+    			.provisionAsync());
+    	}
+    	
+    	int failures = 0;
+    	for(Future<Network> network : networks) {
+    		try {
+    			network.get();
+    		} catch(Exception e) {
+    			failures++;
+    		}
+    	}
+    	
+    	System.out.println(String.format("Provisioned %d networks in %d ms, %d failed", 
+    		count - failures, System.currentTimeMillis() - start, failures));
+    	
+    	// List them
+    	start = System.currentTimeMillis();
+    	int listed = subscription.networks().asMap("standingroup").size();
+    	System.out.println(String.format("Listed %d networks in %d ms", listed, System.currentTimeMillis() - start));
+    	
+    	subscription.resourceGroups().delete("standingroup");
+    }
+}
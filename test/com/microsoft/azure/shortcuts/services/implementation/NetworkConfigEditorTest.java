@@ -0,0 +1,180 @@
+/**
+* Copyright (c) Microsoft Corporation
+* 
+* All rights reserved. 
+* 
+* MIT License
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files 
+* (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, 
+* publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, 
+* subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF 
+* MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR 
+* ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH 
+* THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+*/
+package com.microsoft.azure.shortcuts.services.implementation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Test;
+
+public class NetworkConfigEditorTest {
+	private static final String NS = "http://schemas.microsoft.com/ServiceHosting/2011/07/NetworkConfiguration";
+	private static final String HEADER = "<NetworkConfiguration xmlns=\"" + NS + "\">";
+	
+	private static String site(String name, String prefix) {
+		return "<VirtualNetworkSite name=\"" + name + "\" Location=\"West US\">"
+			+ "<AddressSpace><AddressPrefix>" + prefix + "</AddressPrefix></AddressSpace>"
+			+ "</VirtualNetworkSite>";
+	}
+	
+	private static String config(String... sites) {
+		StringBuilder xml = new StringBuilder(HEADER).append("<VirtualNetworkConfiguration><Dns/><VirtualNetworkSites>");
+		for(String site : sites) {
+			xml.append(site);
+		}
+		return xml.append("</VirtualNetworkSites></VirtualNetworkConfiguration></NetworkConfiguration>").toString();
+	}
+	
+	// Counts the occurrences of the text in the XML
+	private static int count(String xml, String text) {
+		int count = 0;
+		for(int i = xml.indexOf(text); i >= 0; i = xml.indexOf(text, i + 1)) {
+			count++;
+		}
+		return count;
+	}
+	
+	@Test
+	public void removeDropsOnlyTheNamedSite() throws Exception {
+		String result = new NetworkConfigEditor()
+			.remove("net1")
+			.apply(config(site("net1", "10.0.0.0/24"), site("net2", "10.1.0.0/24")));
+		
+		assertFalse(result.contains("\"net1\""));
+		assertTrue(result.contains("\"net2\""));
+		assertTrue(result.contains("10.1.0.0/24"));
+		assertTrue(result.contains("<Dns"));
+	}
+	
+	@Test
+	public void addAppendsTheSiteAfterTheExistingOnes() throws Exception {
+		String result = new NetworkConfigEditor()
+			.add("net2", site("net2", "10.1.0.0/24"))
+			.apply(config(site("net1", "10.0.0.0/24")));
+		
+		assertTrue(result.indexOf("\"net1\"") < result.indexOf("\"net2\""));
+		assertEquals(2, count(result, "<VirtualNetworkSite "));
+		assertEquals(1, count(result, "<VirtualNetworkSites"));
+	}
+	
+	@Test
+	public void replaceSwapsTheSiteContent() throws Exception {
+		String result = new NetworkConfigEditor()
+			.replace("net1", site("net1", "10.9.0.0/24"))
+			.apply(config(site("net1", "10.0.0.0/24")));
+		
+		assertEquals(1, count(result, "\"net1\""));
+		assertTrue(result.contains("10.9.0.0/24"));
+		assertFalse(result.contains("10.0.0.0/24"));
+	}
+	
+	@Test
+	public void addToEmptyVirtualNetworkSites() throws Exception {
+		String result = new NetworkConfigEditor()
+			.add("net1", site("net1", "10.0.0.0/24"))
+			.apply(config());
+		
+		assertEquals(1, count(result, "<VirtualNetworkSite "));
+		assertEquals(1, count(result, "<VirtualNetworkSites"));
+	}
+	
+	@Test
+	public void addCreatesMissingVirtualNetworkSites() throws Exception {
+		String result = new NetworkConfigEditor()
+			.add("net1", site("net1", "10.0.0.0/24"))
+			.apply(HEADER + "<VirtualNetworkConfiguration><Dns/></VirtualNetworkConfiguration></NetworkConfiguration>");
+		
+		assertEquals(1, count(result, "<VirtualNetworkSites"));
+		assertEquals(1, count(result, "<VirtualNetworkSite "));
+		assertTrue(result.indexOf("<Dns") < result.indexOf("<VirtualNetworkSites"));
+	}
+	
+	@Test
+	public void addCreatesMissingVirtualNetworkConfiguration() throws Exception {
+		String result = new NetworkConfigEditor()
+			.add("net1", site("net1", "10.0.0.0/24"))
+			.apply(HEADER + "</NetworkConfiguration>");
+		
+		assertEquals(1, count(result, "<VirtualNetworkConfiguration"));
+		assertEquals(1, count(result, "<VirtualNetworkSites"));
+		assertTrue(new NetworkConfigEditor().add("net1", site("net1", "10.0.0.0/24")).isAppliedTo(result));
+	}
+	
+	@Test(expected = XMLStreamException.class)
+	public void addFailsWithoutNetworkConfiguration() throws Exception {
+		new NetworkConfigEditor()
+			.add("net1", site("net1", "10.0.0.0/24"))
+			.apply("<SomethingElse/>");
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void addFailsOnAnotherExistingSiteWithTheSameName() throws Exception {
+		new NetworkConfigEditor()
+			.add("net1", site("net1", "10.9.0.0/24"))
+			.apply(config(site("net1", "10.0.0.0/24")));
+	}
+	
+	@Test
+	public void addAgainDoesNotDuplicateTheSite() throws Exception {
+		NetworkConfigEditor editor = new NetworkConfigEditor().add("net2", site("net2", "10.1.0.0/24"));
+		String once = editor.apply(config(site("net1", "10.0.0.0/24")));
+		String twice = editor.apply(once);
+		
+		assertEquals(1, count(twice, "\"net2\""));
+		assertTrue(twice.contains("10.0.0.0/24"));
+		assertTrue(editor.isAppliedTo(twice));
+	}
+	
+	@Test
+	public void addAfterRemoveReplacesTheSite() throws Exception {
+		String result = new NetworkConfigEditor()
+			.remove("net1")
+			.add("net1", site("net1", "10.9.0.0/24"))
+			.apply(config(site("net1", "10.0.0.0/24")));
+		
+		assertEquals(1, count(result, "\"net1\""));
+		assertTrue(result.contains("10.9.0.0/24"));
+	}
+	
+	@Test
+	public void isAppliedToDetectsOverwrittenReplacements() throws Exception {
+		NetworkConfigEditor editor = new NetworkConfigEditor().replace("net1", site("net1", "10.9.0.0/24"));
+		
+		assertFalse(editor.isAppliedTo(config(site("net1", "10.0.0.0/24"))));
+		assertTrue(editor.isAppliedTo(config(
+			"<VirtualNetworkSite Location=\"West US\" name=\"net1\">\n"
+			+ "  <AddressSpace>\n    <AddressPrefix>10.9.0.0/24</AddressPrefix>\n  </AddressSpace>\n"
+			+ "</VirtualNetworkSite>")));
+	}
+	
+	@Test
+	public void isAppliedToChecksAdditionsAndRemovals() throws Exception {
+		NetworkConfigEditor editor = new NetworkConfigEditor()
+			.remove("net1")
+			.add("net2", site("net2", "10.1.0.0/24"));
+		String original = config(site("net1", "10.0.0.0/24"));
+		
+		assertFalse(editor.isAppliedTo(original));
+		assertTrue(editor.isAppliedTo(editor.apply(original)));
+	}
+}